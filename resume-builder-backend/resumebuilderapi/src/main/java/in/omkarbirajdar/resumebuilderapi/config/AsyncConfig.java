@@ -0,0 +1,72 @@
+package in.omkarbirajdar.resumebuilderapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${ats.jobs.core-pool-size:4}")
+    private int corePoolSize;
+
+    @Value("${ats.jobs.max-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${ats.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${ats.batch.extraction-threads:0}")
+    private int extractionThreads;
+
+    @Value("${ats.batch.extraction-queue-capacity:500}")
+    private int extractionQueueCapacity;
+
+    /**
+     * Worker pool for ATS analysis jobs, so extraction and LLM calls never run on Tomcat request threads.
+     */
+    @Bean
+    public TaskExecutor atsTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ats-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Fixed pool for CPU-bound text extraction in batch analyses, one thread per core unless configured.
+     */
+    @Bean
+    public TaskExecutor atsExtractionExecutor() {
+        int threads = extractionThreads > 0 ? extractionThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(extractionQueueCapacity);
+        executor.setThreadNamePrefix("ats-extract-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Virtual threads for batch LLM calls, which mostly wait on Groq; their concurrency is capped by the caller.
+     */
+    @Bean
+    public TaskExecutor atsLlmExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ats-llm-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -0,0 +1,28 @@
+package in.omkarbirajdar.resumebuilderapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class LlmClientConfig {
+
+    @Value("${groq.client.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    /**
+     * One shared HTTP/2 client for all LLM calls, so connections are pooled instead of rebuilt per request.
+     */
+    @Bean(destroyMethod = "close")
+    public HttpClient llmHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package in.omkarbirajdar.resumebuilderapi.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import static in.omkarbirajdar.resumebuilderapi.util.AppConstants.ATS;
+import static in.omkarbirajdar.resumebuilderapi.util.AppConstants.ATS_BATCH;
+
+/**
+ * Multipart limits are set per servlet, so the {@code spring.servlet.multipart.*} limits stay at the size of
+ * a single upload for every endpoint, the public image upload included, and batch analysis gets a dispatcher
+ * of its own with limits that fit a batch.
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Value("${ats.batch.max-upload-size:50MB}")
+    private DataSize maxUploadSize;
+
+    @Value("${ats.batch.max-request-size:100MB}")
+    private DataSize maxRequestSize;
+
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> atsBatchDispatcher(WebApplicationContext context) {
+        // Same context and handlers as the main dispatcher; an exact mapping keeps the full path for request matching
+        ServletRegistrationBean<DispatcherServlet> registration =
+                new ServletRegistrationBean<>(new DispatcherServlet(context), ATS + ATS_BATCH);
+        registration.setName("atsBatchDispatcher");
+        registration.setLoadOnStartup(1);
+        registration.setMultipartConfig(new MultipartConfigElement("", maxUploadSize.toBytes(), maxRequestSize.toBytes(), 0));
+        return registration;
+    }
+}
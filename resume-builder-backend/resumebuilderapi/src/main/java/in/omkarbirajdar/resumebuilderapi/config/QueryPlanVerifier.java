@@ -0,0 +1,156 @@
+package in.omkarbirajdar.resumebuilderapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explains the query of every repository finder and fails startup when one would scan a whole collection.
+ * Derived finders are rebuilt from their method names, {@link Query} finders from their JSON, with sample
+ * values in place of the parameters. Enabled with {@code mongo.query-plan-check.enabled=true} for CI and
+ * staging, it runs after the services have created their indexes, which they do at highest precedence.
+ */
+@Component
+@Slf4j
+public class QueryPlanVerifier {
+
+    private final ApplicationContext applicationContext;
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public QueryPlanVerifier(ApplicationContext applicationContext,
+                             MongoTemplate mongoTemplate,
+                             @Value("${mongo.query-plan-check.enabled:false}") boolean enabled) {
+        this.applicationContext = applicationContext;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    record FinderQuery(Document filter, Document sort) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void verify() {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> collectionScans = new ArrayList<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation repository = repositories.getRequiredRepositoryInformation(domainType);
+            String collection = mongoTemplate.getCollectionName(domainType);
+            for (Method method : repository.getQueryMethods()) {
+                String finder = repository.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                FinderQuery query = toQuery(method, domainType);
+                Document plan = explain(collection, query);
+                if (hasStage(plan, "COLLSCAN")) {
+                    collectionScans.add(finder);
+                    log.error("{} scans {}: filter {} sort {}", finder, collection, query.filter().toJson(), query.sort().toJson());
+                } else {
+                    log.info("{} uses an index on {}", finder, collection);
+                }
+            }
+        }
+
+        if (!collectionScans.isEmpty()) {
+            throw new IllegalStateException("Repository finders without a supporting index: " + collectionScans);
+        }
+    }
+
+    private FinderQuery toQuery(Method method, Class<?> domainType) {
+        Query annotated = method.getAnnotation(Query.class);
+        if (annotated != null && !annotated.value().isBlank()) {
+            // The planner only looks at the shape, any value will do for ?0, ?1, ...
+            String filter = annotated.value().replaceAll("\\?\\d+", "'sample'");
+            String sort = annotated.sort().isBlank() ? "{}" : annotated.sort();
+            return new FinderQuery(Document.parse(filter), Document.parse(sort));
+        }
+
+        PartTree tree = new PartTree(method.getName(), domainType);
+        List<Document> branches = new ArrayList<>();
+        for (PartTree.OrPart or : tree) {
+            Document branch = new Document();
+            for (Part part : or) {
+                String field = part.getProperty().toDotPath();
+                branch.append("id".equals(field) ? "_id" : field, sampleCondition(part));
+            }
+            branches.add(branch);
+        }
+        Document filter = branches.size() == 1 ? branches.get(0) : new Document("$or", branches);
+
+        Document sort = new Document();
+        for (Sort.Order order : tree.getSort()) {
+            sort.append(order.getProperty(), order.isAscending() ? 1 : -1);
+        }
+        return new FinderQuery(filter, sort);
+    }
+
+    private static Object sampleCondition(Part part) {
+        Object sample = "id".equals(part.getProperty().toDotPath()) ? new ObjectId() : "sample";
+        return switch (part.getType()) {
+            case GREATER_THAN, AFTER -> new Document("$gt", sample);
+            case GREATER_THAN_EQUAL -> new Document("$gte", sample);
+            case LESS_THAN, BEFORE -> new Document("$lt", sample);
+            case LESS_THAN_EQUAL -> new Document("$lte", sample);
+            case IN -> new Document("$in", List.of(sample));
+            case IS_NULL -> null;
+            case IS_NOT_NULL, EXISTS -> new Document("$exists", true);
+            case TRUE -> true;
+            case FALSE -> false;
+            default -> sample;
+        };
+    }
+
+    private Document explain(String collection, FinderQuery query) {
+        Document find = new Document("find", collection).append("filter", query.filter());
+        if (!query.sort().isEmpty()) {
+            find.append("sort", query.sort());
+        }
+        return mongoTemplate.getDb().runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * Looks for a stage anywhere in the winning plan, which nests differently across server versions.
+     */
+    private static boolean hasStage(Object node, String stage) {
+        if (node instanceof Map<?, ?> map) {
+            if (stage.equals(map.get("stage"))) {
+                return true;
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                // Rejected plans may scan, only the chosen one matters
+                if (!"rejectedPlans".equals(entry.getKey()) && hasStage(entry.getValue(), stage)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                if (hasStage(item, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package in.omkarbirajdar.resumebuilderapi.config;
 
 import in.omkarbirajdar.resumebuilderapi.security.JwtAuthenticationEntryPoint;
 import in.omkarbirajdar.resumebuilderapi.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,7 +35,9 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
-                .authorizeHttpRequests(auth -> auth.requestMatchers(
+                .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                        .requestMatchers(
                         "/api/auth/register",
                         "/api/auth/login",
                         "/api/auth/verify-email",
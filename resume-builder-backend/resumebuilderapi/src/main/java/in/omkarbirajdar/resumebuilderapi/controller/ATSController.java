@@ -1,51 +1,70 @@
 package in.omkarbirajdar.resumebuilderapi.controller;
 
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
 import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSJobResponse;
+import in.omkarbirajdar.resumebuilderapi.dto.JobMatchRequest;
+import in.omkarbirajdar.resumebuilderapi.service.ATSAdmissionControl;
+import in.omkarbirajdar.resumebuilderapi.service.ATSBatchService;
+import in.omkarbirajdar.resumebuilderapi.service.ATSHistoryService;
+import in.omkarbirajdar.resumebuilderapi.service.ATSJobService;
 import in.omkarbirajdar.resumebuilderapi.service.ATSService;
+import in.omkarbirajdar.resumebuilderapi.service.ATSStreamService;
+import in.omkarbirajdar.resumebuilderapi.service.AuthService;
+import in.omkarbirajdar.resumebuilderapi.service.JobMatchService;
+import in.omkarbirajdar.resumebuilderapi.service.LiveATSScoringService;
+import in.omkarbirajdar.resumebuilderapi.service.ResumeService;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeFiles;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeTextSerializer;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.Map;
 
+import static in.omkarbirajdar.resumebuilderapi.util.AppConstants.*;
+
 @RestController
-@RequestMapping("/api/ats")
+@RequestMapping(ATS)
 @RequiredArgsConstructor
 @Slf4j
 public class ATSController {
 
     private final ATSService atsService;
-
-    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    private final ATSJobService atsJobService;
+    private final ATSStreamService atsStreamService;
+    private final ATSBatchService atsBatchService;
+    private final AuthService authService;
+    private final ResumeService resumeService;
+    private final LiveATSScoringService liveScoringService;
+    private final JobMatchService jobMatchService;
+    private final ATSAdmissionControl admissionControl;
+    private final ATSHistoryService atsHistoryService;
 
     @PostMapping("/analyze")
-    public ResponseEntity<?> analyzeResume(@RequestParam("file") MultipartFile file) {
-        try {
-            // Validate file
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Please upload a file"));
-            }
-
-            // Validate file size
-            if (file.getSize() > MAX_FILE_SIZE) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "File size must be less than 5MB"));
-            }
-
-            // Validate file type
-            String fileName = file.getOriginalFilename();
-            if (fileName == null ||
-                    (!fileName.toLowerCase().endsWith(".pdf") &&
-                            !fileName.toLowerCase().endsWith(".docx"))) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Only PDF and DOCX files are allowed"));
-            }
-
-            log.info("Analyzing resume: {}, size: {} bytes", fileName, file.getSize());
+    public ResponseEntity<?> analyzeResume(@RequestParam("file") MultipartFile file,
+                                           Authentication authentication) {
+        // Validate file
+        String validationError = ResumeFiles.validate(file);
+        if (validationError != null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", validationError));
+        }
+
+        // Wait for an analysis slot, rejections are answered with 429 by GlobalExceptionHandler
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        ATSAdmissionControl.Permit permit = admissionControl.admit(userId);
+        try {
+            log.info("Analyzing resume: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
 
             // Perform analysis
             ATSAnalysisResponse response = atsService.analyzeResume(file);
@@ -56,6 +75,200 @@ public class ATSController {
             log.error("Error analyzing resume", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to analyze resume: " + e.getMessage()));
+        } finally {
+            permit.release();
+        }
+    }
+
+    @PostMapping("/resumes/{resumeId}/analyze")
+    public ResponseEntity<?> analyzeStoredResume(@PathVariable String resumeId,
+                                                 Authentication authentication) {
+        //Step 1: load the resume, this also checks that it belongs to the caller
+        Resume resume;
+        try {
+            resume = resumeService.getResumeById(resumeId, authentication.getPrincipal());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        //Step 2: wait for an analysis slot
+        ATSAdmissionControl.Permit permit = admissionControl.admit(resume.getUserId());
+        try {
+            //Step 3: analyze the stored fields directly, only sections changed since the last analysis go to the model
+            return ResponseEntity.ok(atsHistoryService.analyze(resume));
+        } catch (Exception e) {
+            log.error("Error analyzing resume {}", resumeId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to analyze resume: " + e.getMessage()));
+        } finally {
+            permit.release();
         }
     }
+
+    @GetMapping("/resumes/{resumeId}/history")
+    public ResponseEntity<?> getAnalysisHistory(@PathVariable String resumeId,
+                                                @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                Authentication authentication) {
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        return ResponseEntity.ok(atsHistoryService.getHistory(userId, resumeId, limit));
+    }
+
+    @PostMapping("/match")
+    public ResponseEntity<?> matchJobDescription(@RequestParam("file") MultipartFile file,
+                                                 @RequestParam("jobDescription") String jobDescription,
+                                                 @RequestParam(value = "includeSuggestions", defaultValue = "false") boolean includeSuggestions,
+                                                 Authentication authentication) {
+        //Step 1: Validate the file
+        String validationError = ResumeFiles.validate(file);
+        if (validationError != null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", validationError));
+        }
+
+        //Step 2: wait for a slot, parsing the upload is the expensive part
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        ATSAdmissionControl.Permit permit = admissionControl.admit(userId);
+        try {
+            //Step 3: extract the text and match it locally
+            String resumeText = atsService.extractText(atsService.readUpload(file), file.getOriginalFilename());
+            return ResponseEntity.ok(jobMatchService.match(resumeText, jobDescription, includeSuggestions));
+
+        } catch (Exception e) {
+            log.error("Error matching resume to job description", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to match resume: " + e.getMessage()));
+        } finally {
+            permit.release();
+        }
+    }
+
+    @PostMapping("/resumes/{resumeId}/match")
+    public ResponseEntity<?> matchStoredResume(@PathVariable String resumeId,
+                                               @Valid @RequestBody JobMatchRequest request,
+                                               Authentication authentication) {
+        //Step 1: load the resume, this also checks that it belongs to the caller
+        Resume resume;
+        try {
+            resume = resumeService.getResumeById(resumeId, authentication.getPrincipal());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        try {
+            //Step 2: match the stored fields against the job description
+            return ResponseEntity.ok(jobMatchService.match(ResumeTextSerializer.serialize(resume),
+                    request.getJobDescription(), request.isIncludeSuggestions()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/live")
+    public ResponseEntity<?> liveScore(@RequestBody Resume resume) {
+        // Called by the editor on every autosave, local scoring only
+        return ResponseEntity.ok(liveScoringService.score(resume));
+    }
+
+    @PostMapping("/analyze/stream")
+    public ResponseEntity<?> streamResumeAnalysis(@RequestParam("file") MultipartFile file,
+                                                  Authentication authentication) {
+        //Step 1: Validate the file
+        String validationError = ResumeFiles.validate(file);
+        if (validationError != null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", validationError));
+        }
+
+        //Step 2: wait for a slot, it is held until the stream finishes
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        ATSAdmissionControl.Permit permit = admissionControl.admit(userId);
+        try {
+            log.info("Streaming resume analysis: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
+
+            //Step 3: start the analysis, fields are pushed to the client as the LLM produces them
+            SseEmitter emitter = atsStreamService.stream(atsService.readUpload(file), file.getOriginalFilename(), permit);
+            return ResponseEntity.ok(emitter);
+
+        } catch (Exception e) {
+            permit.release();
+            log.error("Error starting streamed resume analysis", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Failed to analyze resume: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping(ATS_BATCH)
+    public ResponseEntity<?> analyzeBatch(@RequestParam("files") List<MultipartFile> files,
+                                          Authentication authentication) {
+        List<ATSBatchService.BatchFile> batch;
+        try {
+            //Step 1: read the files, a single ZIP is expanded into its resumes
+            batch = atsBatchService.unpack(files);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        // Admitting the batch costs one token, every further resume in it is charged as it is analyzed
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        admissionControl.checkRate(userId);
+
+        //Step 2: stream one NDJSON line per resume as each analysis completes
+        ResponseBodyEmitter emitter = atsBatchService.analyze(batch, userId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitAnalysisJob(@RequestParam("file") MultipartFile file,
+                                               Authentication authentication) {
+        //Step 1: Validate the file, a rejected upload costs no token
+        String validationError = ResumeFiles.validate(file);
+        if (validationError != null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", validationError));
+        }
+
+        // Charge the user's bucket up front, the worker waits for a slot before it starts
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        admissionControl.checkRate(userId);
+
+        try {
+            log.info("Queueing resume analysis: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
+
+            //Step 2: Queue the job, the bytes are copied because the multipart file is gone after this request
+            ATSJobResponse job = atsJobService.submit(userId, atsService.readUpload(file), file.getOriginalFilename());
+
+            //Step 3: return the job handle
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+
+        } catch (Exception e) {
+            log.error("Error queueing resume analysis", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Failed to queue resume analysis: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getAnalysisJob(@PathVariable String jobId,
+                                            Authentication authentication) {
+        try {
+            String userId = authService.getProfile(authentication.getPrincipal()).getId();
+            return ResponseEntity.ok(atsJobService.getJob(jobId, userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnalysisJob(@PathVariable String jobId,
+                                        Authentication authentication) {
+        String userId = authService.getProfile(authentication.getPrincipal()).getId();
+        return atsJobService.subscribe(jobId, userId);
+    }
 }
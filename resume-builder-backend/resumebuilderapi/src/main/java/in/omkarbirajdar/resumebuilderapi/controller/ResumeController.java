@@ -1,23 +1,35 @@
 package in.omkarbirajdar.resumebuilderapi.controller;
 
 import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import com.fasterxml.jackson.databind.JsonNode;
 import in.omkarbirajdar.resumebuilderapi.dto.CreateResumeRequest;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumePatchOperation;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumeRevisionPage;
 import in.omkarbirajdar.resumebuilderapi.service.FileUploadService;
+import in.omkarbirajdar.resumebuilderapi.service.ResumeImportService;
+import in.omkarbirajdar.resumebuilderapi.service.ResumeRevisionService;
 import in.omkarbirajdar.resumebuilderapi.service.ResumeService;
+import in.omkarbirajdar.resumebuilderapi.util.ETags;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeFiles;
+import in.omkarbirajdar.resumebuilderapi.util.ResumePatch;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static in.omkarbirajdar.resumebuilderapi.util.AppConstants.*;
 
@@ -29,6 +41,8 @@ public class ResumeController {
 
     private final ResumeService resumeService;
     private final FileUploadService fileUploadService;
+    private final ResumeImportService resumeImportService;
+    private final ResumeRevisionService resumeRevisionService;
 
     @PostMapping
     public ResponseEntity<?> createResume(@Valid @RequestBody CreateResumeRequest request,
@@ -40,6 +54,25 @@ public class ResumeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(newResume);
     }
 
+    @PostMapping(IMPORT)
+    public ResponseEntity<?> importResume(@RequestParam("file") MultipartFile file,
+                                          @RequestParam(value = "title", required = false) String title,
+                                          @RequestParam(value = "refine", defaultValue = "false") boolean refine,
+                                          Authentication authentication) throws Exception {
+        //Step 1: Validate the file
+        String validationError = ResumeFiles.validate(file);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().body(Map.of("message", validationError));
+        }
+
+        //Step 2: Call the service method
+        String resumeTitle = title == null || title.isBlank() ? stripExtension(file.getOriginalFilename()) : title;
+        Resume importedResume = resumeImportService.importResume(file, resumeTitle, refine, authentication.getPrincipal());
+
+        //Step 3: return response
+        return ResponseEntity.status(HttpStatus.CREATED).body(importedResume);
+    }
+
     @GetMapping
     public ResponseEntity<?> getUserResumes(Authentication authentication) {
         //Step 1: Call the service method
@@ -49,25 +82,109 @@ public class ResumeController {
         return ResponseEntity.ok(resumes);
     }
 
+    @GetMapping(SUMMARIES)
+    public ResponseEntity<?> getResumeSummaries(@RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "24") int limit,
+                                                Authentication authentication) {
+        //Step 1: Call the service method
+        StreamingResponseBody summaries;
+        try {
+            summaries = resumeService.getResumeSummaries(authentication.getPrincipal(), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        //Step 2: stream the page as it is read
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(summaries);
+    }
+
     @GetMapping(ID)
     public ResponseEntity<?> getResumeById(@PathVariable String id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
                                            Authentication authentication) {
-        //Step 1: Call the service method
+        //Step 1: answer from the version alone when the client already has it
+        if (ifNoneMatch != null) {
+            long version = resumeService.getResumeVersion(id, authentication.getPrincipal());
+            if (ETags.matchesIfNoneMatch(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build();
+            }
+        }
+
+        //Step 2: Call the service method
         Resume existingResume = resumeService.getResumeById(id, authentication.getPrincipal());
 
-        //Step 2: return the response;
-        return ResponseEntity.ok(existingResume);
+        //Step 3: return the response;
+        return ResponseEntity.ok().eTag(ETags.of(existingResume.getVersion())).body(existingResume);
     }
 
     @PutMapping(ID)
     public ResponseEntity<?> updateResume(@PathVariable String id,
                                           @RequestBody Resume updatedData,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          Authentication authentication) {
+        //Step 1: Call the service method, with If-Match the write only applies to the version the client has
+        Resume updatedResume = resumeService.updateResume(id, updatedData,
+                ifMatch == null ? null : ETags.parseIfMatch(ifMatch), authentication.getPrincipal());
+
+        //Step 2: return the response
+        return ResponseEntity.ok().eTag(ETags.of(updatedResume.getVersion())).body(updatedResume);
+    }
+
+    @PatchMapping(value = ID, consumes = MERGE_PATCH_JSON)
+    public ResponseEntity<?> mergePatchResume(@PathVariable String id,
+                                              @RequestBody JsonNode patch,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              Authentication authentication) {
+        return applyPatch(id, () -> ResumePatch.fromMergePatch(patch), ifMatch, authentication);
+    }
+
+    @PatchMapping(value = ID, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> patchResume(@PathVariable String id,
+                                         @RequestBody List<ResumePatchOperation> operations,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         Authentication authentication) {
+        return applyPatch(id, () -> ResumePatch.fromOperations(operations), ifMatch, authentication);
+    }
+
+    @GetMapping(REVISIONS)
+    public ResponseEntity<?> getRevisions(@PathVariable String id,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "limit", defaultValue = "24") int limit,
                                           Authentication authentication) {
         //Step 1: Call the service method
-        Resume updatedResume = resumeService.updateResume(id, updatedData, authentication.getPrincipal());
+        ResumeRevisionPage revisions;
+        try {
+            revisions = resumeRevisionService.getRevisions(id, authentication.getPrincipal(), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
 
         //Step 2: return the response
-        return ResponseEntity.ok(updatedResume);
+        return ResponseEntity.ok(revisions);
+    }
+
+    @GetMapping(REVISION)
+    public ResponseEntity<?> getRevision(@PathVariable String id,
+                                         @PathVariable long version,
+                                         Authentication authentication) {
+        //Step 1: Call the service method
+        Resume revision = resumeRevisionService.getRevision(id, version, authentication.getPrincipal());
+
+        //Step 2: return the response
+        return ResponseEntity.ok(revision);
+    }
+
+    @PostMapping(RESTORE_REVISION)
+    public ResponseEntity<?> restoreRevision(@PathVariable String id,
+                                             @PathVariable long version,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             Authentication authentication) {
+        //Step 1: Call the service method, the restored content becomes the newest version
+        Resume restoredResume = resumeService.restoreRevision(id, version,
+                ifMatch == null ? null : ETags.parseIfMatch(ifMatch), authentication.getPrincipal());
+
+        //Step 2: return the response
+        return ResponseEntity.ok().eTag(ETags.of(restoredResume.getVersion())).body(restoredResume);
     }
 
     @PutMapping(UPLOAD_IMAGES)
@@ -92,4 +209,24 @@ public class ResumeController {
         return ResponseEntity.ok(Map.of("message", "Resume deleted successfully"));
     }
 
+    private ResponseEntity<?> applyPatch(String id, Supplier<ResumePatch> patch, String ifMatch,
+                                         Authentication authentication) {
+        try {
+            //Step 1: translate the patch into a targeted update and apply it
+            Resume patchedResume = resumeService.patchResume(id, patch.get(),
+                    ifMatch == null ? null : ETags.parseIfMatch(ifMatch), authentication.getPrincipal());
+
+            //Step 2: return the response
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(patchedResume.getVersion()))
+                    .body(Map.of("_id", id, "version", patchedResume.getVersion(), "updatedAt", patchedResume.getUpdatedAt()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
 }
@@ -0,0 +1,63 @@
+package in.omkarbirajdar.resumebuilderapi.document;
+
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One ATS analysis of a stored resume. The findings are kept per section together with a hash of the
+ * section text they were made on, so the next analysis only sends the sections that changed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "ats_analyses")
+public class ATSAnalysisRecord {
+
+    @Id
+    private String id;
+
+    private String userId;
+    private String resumeId;
+
+    /**
+     * Prompt and model version, findings made by another version are never reused.
+     */
+    private String analysisVersion;
+
+    /**
+     * SHA-256 of each section's text, keyed by section name.
+     */
+    private Map<String, String> sectionHashes;
+
+    private Map<String, SectionFindings> sectionFindings;
+
+    /**
+     * Sections sent to the model for this analysis, the others were carried over.
+     */
+    private List<String> analyzedSections;
+
+    private ATSAnalysisResponse result;
+
+    private Instant createdAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class SectionFindings {
+        private int score;
+        private List<String> issues;
+        private List<String> suggestions;
+        private List<String> keywordSuggestions;
+    }
+}
@@ -0,0 +1,32 @@
+package in.omkarbirajdar.resumebuilderapi.document;
+
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "ats_result_cache")
+public class ATSCacheEntry {
+
+    /**
+     * SHA-256 of the normalized resume text plus prompt and model version.
+     */
+    @Id
+    private String id;
+
+    private ATSAnalysisResponse result;
+
+    /**
+     * Expiry is driven by a TTL index on this field, see {@link in.omkarbirajdar.resumebuilderapi.service.ATSResultCache}.
+     */
+    private Instant createdAt;
+}
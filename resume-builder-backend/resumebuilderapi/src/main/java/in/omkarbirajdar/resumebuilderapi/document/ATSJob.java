@@ -0,0 +1,56 @@
+package in.omkarbirajdar.resumebuilderapi.document;
+
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A queued ATS analysis. Any API instance may claim it by taking a lease, see
+ * {@link in.omkarbirajdar.resumebuilderapi.service.ATSJobService}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "ats_jobs")
+public class ATSJob {
+
+    @Id
+    private String id;
+
+    private String userId;
+    private String fileName;
+
+    /**
+     * The uploaded file, dropped once its text has been extracted.
+     */
+    private byte[] content;
+
+    /**
+     * Kept so a retry after a lost lease goes straight to scoring.
+     */
+    private String extractedText;
+
+    private String status; //queued, extracting, scoring, done, failed
+    private ATSAnalysisResponse provisionalResult;
+    private ATSAnalysisResponse result;
+    private String error;
+
+    private int attempts;
+    private String leaseOwner;
+    private Instant leaseExpiresAt;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    /**
+     * Set once the job is done or failed, a TTL index removes the job at this time.
+     */
+    private Instant expiresAt;
+}
@@ -50,6 +50,12 @@ public class Resume {
 
     private List<String> interests;
 
+    /**
+     * Incremented by every write and sent as the ETag. Checked in the update filters rather than through
+     * {@code @Version}, resumes stored before it existed have none and count as version 0.
+     */
+    private Long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -0,0 +1,65 @@
+package in.omkarbirajdar.resumebuilderapi.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One saved version of a resume's editable content. Most revisions store only the JSON Patch from the
+ * revision they are based on; every few revisions a full snapshot starts a new chain, so restoring any
+ * version reads one snapshot and a bounded number of deltas.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "resume_revisions")
+public class ResumeRevision {
+
+    @Id
+    private String id;
+
+    private String resumeId;
+    private String userId;
+
+    /**
+     * The resume version this content was saved as.
+     */
+    private long version;
+
+    /**
+     * Version the delta applies to, null for a snapshot.
+     */
+    private Long baseVersion;
+
+    /**
+     * Version of the snapshot the chain of this revision starts from, its own version for a snapshot.
+     */
+    private long snapshotVersion;
+
+    /**
+     * Deltas between the snapshot and this revision.
+     */
+    private int depth;
+
+    /**
+     * The whole editable content as JSON for a snapshot, otherwise a JSON Patch array.
+     */
+    private String content;
+
+    /**
+     * Set once background compaction has thinned the revisions up to this one.
+     */
+    private boolean compacted;
+
+    private LocalDateTime createdAt;
+
+    public boolean isSnapshot() {
+        return baseVersion == null;
+    }
+}
@@ -20,4 +20,7 @@ public class ATSAnalysisResponse {
     private Map<String, Integer> repetitiveWords;
     private List<String> issues;
     private List<String> suggestions;
+    // true when the LLM was unavailable and the scores are not model generated
+    private boolean fallbackUsed;
+    private String fallbackReason;
 }
@@ -0,0 +1,20 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ATSBatchItemResponse {
+    private int index; //position of the file in the upload, or in the zip
+    private String fileName;
+    private String status; //done, failed
+    private ATSAnalysisResponse result;
+    private String error;
+}
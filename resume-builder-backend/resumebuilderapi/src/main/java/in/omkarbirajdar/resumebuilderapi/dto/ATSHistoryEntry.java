@@ -0,0 +1,21 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ATSHistoryEntry {
+    private Instant analyzedAt;
+    private int overallScore;
+    private int formatScore;
+    private int contentScore;
+    private List<String> analyzedSections; //sections re-sent to the model, the rest were carried over
+}
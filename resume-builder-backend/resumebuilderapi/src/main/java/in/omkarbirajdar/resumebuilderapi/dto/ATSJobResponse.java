@@ -0,0 +1,25 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ATSJobResponse {
+    private String jobId;
+    private String status; //queued, extracting, scoring, done, failed
+    private ATSAnalysisResponse provisionalResult; //local score, available once extraction is done
+    private ATSAnalysisResponse result;
+    private String error;
+    private Integer attempts; //claims so far, above 1 when the job was retried after a worker was lost
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
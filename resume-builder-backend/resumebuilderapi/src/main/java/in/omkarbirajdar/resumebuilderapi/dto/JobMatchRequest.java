@@ -0,0 +1,14 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class JobMatchRequest {
+
+    @NotBlank(message = "Job description is required")
+    private String jobDescription;
+
+    // also ask the LLM for written suggestions, slower and not meant for every keystroke
+    private boolean includeSuggestions;
+}
@@ -0,0 +1,23 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobMatchResponse {
+    private int matchScore; //0-100, weighted share of the job's keywords the resume covers
+    private List<String> matchedKeywords;
+    // job keywords missing from the resume, most important first, same meaning as in ATSAnalysisResponse
+    private List<String> keywordSuggestions;
+    private List<String> suggestions; //LLM prose, only when requested
+    private String suggestionsError;
+}
@@ -0,0 +1,25 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One section-level edit of a resume, e.g. {@code {"op": "set", "path": "workExperience[2]", "value": {...}}},
+ * {@code {"op": "append", "path": "skills", "value": {"name": "Kafka"}}} or
+ * {@code {"op": "set", "path": "profileInfo.summary", "value": "..."}}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumePatchOperation {
+
+    private String op; //set, append or remove
+
+    private String path;
+
+    private JsonNode value; //an array appends every element
+}
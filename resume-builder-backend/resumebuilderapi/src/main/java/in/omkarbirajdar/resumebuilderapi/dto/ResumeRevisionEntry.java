@@ -0,0 +1,20 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A version of a resume that can be viewed or restored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeRevisionEntry {
+    private long version;
+    private LocalDateTime savedAt;
+}
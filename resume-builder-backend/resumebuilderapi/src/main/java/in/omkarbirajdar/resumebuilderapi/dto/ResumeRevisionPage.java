@@ -0,0 +1,20 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a resume's revisions, newest first. {@code nextCursor} is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeRevisionPage {
+    private List<ResumeRevisionEntry> items;
+    private String nextCursor;
+}
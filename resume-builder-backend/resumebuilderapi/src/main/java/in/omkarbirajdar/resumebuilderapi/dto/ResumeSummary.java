@@ -0,0 +1,25 @@
+package in.omkarbirajdar.resumebuilderapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a dashboard card shows of a resume.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeSummary {
+    @JsonProperty("_id")
+    private String id;
+    private String title;
+    private String thumbnailLink;
+    private String theme;
+    private LocalDateTime updatedAt;
+}
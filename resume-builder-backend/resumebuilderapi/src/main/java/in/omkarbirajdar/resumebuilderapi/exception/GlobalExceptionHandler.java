@@ -1,6 +1,7 @@
 package in.omkarbirajdar.resumebuilderapi.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -43,6 +44,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        log.info("Inside GlobalExceptionHandler - handleTooManyRequestsException()");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Too many requests");
+        response.put("errors", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailedException(PreconditionFailedException ex) {
+        log.info("Inside GlobalExceptionHandler - handlePreconditionFailedException()");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Precondition failed");
+        response.put("errors", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         log.info("Inside GlobalExceptionHandler - handleGenericException()");
@@ -0,0 +1,8 @@
+package in.omkarbirajdar.resumebuilderapi.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package in.omkarbirajdar.resumebuilderapi.repository;
+
+import in.omkarbirajdar.resumebuilderapi.document.ATSAnalysisRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ATSAnalysisRecordRepository extends MongoRepository<ATSAnalysisRecord, String> {
+
+    Optional<ATSAnalysisRecord> findFirstByUserIdAndResumeIdOrderByCreatedAtDesc(String userId, String resumeId);
+
+    // The trend only needs the scores
+    @Query(value = "{ 'userId': ?0, 'resumeId': ?1 }",
+            fields = "{ 'sectionHashes': 0, 'sectionFindings': 0, 'result.issues': 0, 'result.suggestions': 0, "
+                    + "'result.keywordSuggestions': 0, 'result.repetitiveWords': 0 }",
+            sort = "{ 'createdAt': -1 }")
+    List<ATSAnalysisRecord> findHistory(String userId, String resumeId, Pageable pageable);
+}
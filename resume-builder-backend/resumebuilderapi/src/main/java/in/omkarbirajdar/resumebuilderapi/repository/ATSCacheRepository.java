@@ -0,0 +1,7 @@
+package in.omkarbirajdar.resumebuilderapi.repository;
+
+import in.omkarbirajdar.resumebuilderapi.document.ATSCacheEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ATSCacheRepository extends MongoRepository<ATSCacheEntry, String> {
+}
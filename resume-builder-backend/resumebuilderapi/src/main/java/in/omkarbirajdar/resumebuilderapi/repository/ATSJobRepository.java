@@ -0,0 +1,14 @@
+package in.omkarbirajdar.resumebuilderapi.repository;
+
+import in.omkarbirajdar.resumebuilderapi.document.ATSJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Optional;
+
+public interface ATSJobRepository extends MongoRepository<ATSJob, String> {
+
+    // The uploaded file and its text are only needed by the worker
+    @Query(value = "{ '_id': ?0, 'userId': ?1 }", fields = "{ 'content': 0, 'extractedText': 0 }")
+    Optional<ATSJob> findByIdAndUserId(String id, String userId);
+}
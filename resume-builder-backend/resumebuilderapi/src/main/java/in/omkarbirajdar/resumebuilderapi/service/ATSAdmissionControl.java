@@ -0,0 +1,194 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.omkarbirajdar.resumebuilderapi.exception.TooManyRequestsException;
+import in.omkarbirajdar.resumebuilderapi.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead in front of the ATS pipeline. A fixed number of analyses run at once across all users, a bounded
+ * number more may wait briefly for a slot, and each user draws from their own token bucket. Anything beyond
+ * that is rejected straight away with a {@link TooManyRequestsException} instead of piling up work.
+ */
+@Service
+@Slf4j
+public class ATSAdmissionControl {
+
+    /**
+     * A slot in the bulkhead. Release it once the work is finished; releasing twice is harmless.
+     */
+    public class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+    private final int userBurst;
+    private final Duration userRefillPeriod;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Cache<String, TokenBucket> userBuckets;
+
+    private final Timer waitTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedRateLimited;
+
+    public ATSAdmissionControl(MeterRegistry meterRegistry,
+                               @Value("${ats.admission.max-concurrent:8}") int maxConcurrent,
+                               @Value("${ats.admission.max-queue:32}") int maxQueue,
+                               @Value("${ats.admission.max-wait:10s}") Duration maxWait,
+                               @Value("${ats.admission.retry-after:5s}") Duration retryAfter,
+                               @Value("${ats.admission.user.burst:5}") int userBurst,
+                               @Value("${ats.admission.user.refill-period:12s}") Duration userRefillPeriod,
+                               @Value("${ats.admission.user.max-tracked:100000}") long maxTrackedUsers) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        this.userBurst = userBurst;
+        this.userRefillPeriod = userRefillPeriod;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        // A bucket left idle for a full refill cycle is full again, so dropping it loses nothing
+        this.userBuckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterAccess(userRefillPeriod.multipliedBy(userBurst))
+                .build();
+
+        Gauge.builder("ats.admission.queue.depth", waiting, AtomicInteger::get)
+                .description("Requests waiting for an ATS analysis slot")
+                .register(meterRegistry);
+        Gauge.builder("ats.admission.active", permits, p -> this.maxConcurrent - p.availablePermits())
+                .description("ATS analyses currently holding a slot")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("ats.admission.wait")
+                .description("Time spent waiting for an ATS analysis slot")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedQueueFull = rejectionCounter(meterRegistry, "queue_full");
+        this.rejectedTimeout = rejectionCounter(meterRegistry, "timeout");
+        this.rejectedRateLimited = rejectionCounter(meterRegistry, "rate_limited");
+    }
+
+    /**
+     * Charges the user's bucket and then waits for a slot.
+     *
+     * @throws TooManyRequestsException when the user is over their rate or the bulkhead is saturated
+     */
+    public Permit admit(String userId) {
+        checkRate(userId);
+        return acquire();
+    }
+
+    /**
+     * Charges one token from the user's bucket without taking a slot, for work that is queued elsewhere.
+     */
+    public void checkRate(String userId) {
+        long waitNanos = userBuckets.get(userId, id -> new TokenBucket(userBurst, userRefillPeriod)).tryConsume();
+        if (waitNanos > 0) {
+            rejectedRateLimited.increment();
+            throw new TooManyRequestsException("Too many ATS requests, please slow down",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+
+    /**
+     * Charges one token from the user's bucket, waiting for the next one instead of rejecting. For work that is
+     * paced rather than answered straight away, like the files of a batch.
+     */
+    public void awaitRate(String userId) throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = userBuckets.get(userId, id -> new TokenBucket(userBurst, userRefillPeriod)).tryConsume()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a slot, waiting as long as it takes. Only for callers that bound how many of them wait, like the
+     * batch analyses, which wait while holding one of a few batch permits.
+     */
+    public Permit acquireWaiting() throws InterruptedException {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            permits.acquire();
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new Permit();
+    }
+
+    /**
+     * Takes a slot, waiting up to the configured time if all are busy and the wait queue has room.
+     */
+    public Permit acquire() {
+        long start = System.nanoTime();
+        try {
+            // Zero-timeout tryAcquire honours fairness, so it never jumps ahead of queued requests
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return new Permit();
+            }
+
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                rejectedQueueFull.increment();
+                throw busy();
+            }
+            try {
+                if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    rejectedTimeout.increment();
+                    throw busy();
+                }
+            } finally {
+                waiting.decrementAndGet();
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return new Permit();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        }
+    }
+
+    private TooManyRequestsException busy() {
+        return new TooManyRequestsException("ATS analysis is busy, please try again shortly",
+                Math.max(1, retryAfter.toSeconds()));
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ats.admission.rejected")
+                .description("ATS requests rejected by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
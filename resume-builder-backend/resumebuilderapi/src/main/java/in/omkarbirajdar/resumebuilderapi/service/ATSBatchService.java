@@ -0,0 +1,304 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSBatchItemResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Analyzes many resumes in one request. Text is extracted on a core-sized pool, LLM calls run on virtual
+ * threads under a global concurrency limit, and each file's result is written as one NDJSON line as soon
+ * as it is ready. A file that fails produces a failed line instead of failing the batch. Every analysis
+ * is charged to the user's bucket and takes a slot of {@link ATSAdmissionControl} like a single upload.
+ */
+@Service
+@Slf4j
+public class ATSBatchService {
+
+    public static final String STATUS_DONE = "done";
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * One resume of a batch. Files rejected while unpacking carry an error and no content.
+     */
+    public record BatchFile(int index, String fileName, byte[] content, String error) {
+    }
+
+    private final ATSService atsService;
+    private final ATSAdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor extractionExecutor;
+    private final TaskExecutor llmExecutor;
+    private final Semaphore llmPermits;
+
+    private final int maxFiles;
+    private final long maxFileBytes;
+    private final long maxUnpackedBytes;
+    private final long timeoutMs;
+
+    public ATSBatchService(ATSService atsService,
+                           ATSAdmissionControl admissionControl,
+                           ObjectMapper objectMapper,
+                           @Qualifier("atsExtractionExecutor") TaskExecutor extractionExecutor,
+                           @Qualifier("atsLlmExecutor") TaskExecutor llmExecutor,
+                           @Value("${ats.batch.max-concurrent-llm-calls:4}") int maxConcurrentLlmCalls,
+                           @Value("${ats.batch.max-files:50}") int maxFiles,
+                           @Value("${ats.batch.max-file-size:5MB}") DataSize maxFileSize,
+                           @Value("${ats.batch.max-unpacked-size:50MB}") DataSize maxUnpackedSize,
+                           @Value("${ats.batch.timeout-ms:600000}") long timeoutMs) {
+        this.atsService = atsService;
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+        this.extractionExecutor = extractionExecutor;
+        this.llmExecutor = llmExecutor;
+        // Shared by all batches, so several large uploads cannot multiply the load on Groq
+        this.llmPermits = new Semaphore(maxConcurrentLlmCalls, true);
+        this.maxFiles = maxFiles;
+        this.maxFileBytes = maxFileSize.toBytes();
+        this.maxUnpackedBytes = maxUnpackedSize.toBytes();
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Reads the uploaded files, expanding a single ZIP upload into its PDF and DOCX entries.
+     *
+     * @throws RuntimeException when the batch is empty or has more files than allowed
+     * @throws IOException when the ZIP inflates to more than {@code ats.batch.max-unpacked-size}
+     */
+    public List<BatchFile> unpack(List<MultipartFile> files) throws IOException {
+        List<BatchFile> batch = new ArrayList<>();
+        if (files.size() == 1 && isZip(files.get(0).getOriginalFilename())) {
+            try (ZipInputStream zip = new ZipInputStream(files.get(0).getInputStream())) {
+                // Every inflated byte goes through the budget, including the parts of entries that are not kept
+                UnpackBudget entries = new UnpackBudget(zip, maxUnpackedBytes);
+                byte[] skipped = new byte[8192];
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String name = entry.getName();
+                    // Skip folders and the metadata macOS adds to archives
+                    if (!entry.isDirectory() && !name.startsWith("__MACOSX/") && !name.substring(name.lastIndexOf('/') + 1).startsWith(".")) {
+                        checkBatchSize(batch.size() + 1);
+                        batch.add(readFile(batch.size(), name, entries));
+                    }
+                    while (entries.read(skipped) >= 0) {
+                        // Drained here rather than by getNextEntry(), which would inflate it unaccounted
+                    }
+                }
+            }
+        } else {
+            checkBatchSize(files.size());
+            for (MultipartFile file : files) {
+                if (file.getSize() > maxFileBytes) {
+                    batch.add(failed(batch.size(), file.getOriginalFilename(), fileTooLarge()));
+                } else {
+                    batch.add(readFile(batch.size(), file.getOriginalFilename(), file.getInputStream()));
+                }
+            }
+        }
+
+        if (batch.isEmpty()) {
+            throw new RuntimeException("Please upload at least one PDF or DOCX file");
+        }
+        return batch;
+    }
+
+    /**
+     * Starts the analyses of a batch admitted with one token of the user's bucket, which pays for the first
+     * analysis. Every further analysis waits for a token of its own.
+     */
+    public ResponseBodyEmitter analyze(List<BatchFile> batch, String userId) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMs);
+        AtomicInteger remaining = new AtomicInteger(batch.size());
+        AtomicBoolean prepaid = new AtomicBoolean(true);
+        log.info("Analyzing batch of {} resumes", batch.size());
+
+        for (BatchFile file : batch) {
+            //Step 1: files rejected while unpacking are reported straight away
+            if (file.error() != null) {
+                emit(emitter, remaining, failedItem(file, file.error()));
+                continue;
+            }
+
+            //Step 2: extract on the bounded pool, then analyze on a virtual thread once a token and the permits are free
+            try {
+                CompletableFuture
+                        .supplyAsync(() -> extract(file), extractionExecutor)
+                        .thenApplyAsync(resumeText -> analyzeWithPermit(resumeText, userId, prepaid), llmExecutor)
+                        .whenComplete((result, error) -> {
+                            //Step 3: write the line for this file, the last one closes the stream
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                                log.warn("Batch analysis of {} failed: {}", file.fileName(), cause.getMessage());
+                                emit(emitter, remaining, failedItem(file, "Failed to analyze resume: " + cause.getMessage()));
+                            } else {
+                                emit(emitter, remaining, ATSBatchItemResponse.builder()
+                                        .index(file.index())
+                                        .fileName(file.fileName())
+                                        .status(STATUS_DONE)
+                                        .result(result)
+                                        .build());
+                            }
+                        });
+            } catch (RuntimeException e) {
+                emit(emitter, remaining, failedItem(file, "ATS analysis queue is full, please try again shortly"));
+            }
+        }
+        return emitter;
+    }
+
+    private String extract(BatchFile file) {
+        try {
+            return atsService.extractText(file.content(), file.fileName());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private ATSAnalysisResponse analyzeWithPermit(String resumeText, String userId, AtomicBoolean prepaid) {
+        try {
+            if (!prepaid.getAndSet(false)) {
+                admissionControl.awaitRate(userId);
+            }
+            // The batch permit bounds how many batch analyses wait for a slot of the shared bulkhead
+            llmPermits.acquire();
+            try {
+                ATSAdmissionControl.Permit permit = admissionControl.acquireWaiting();
+                try {
+                    return atsService.analyzeText(resumeText);
+                } finally {
+                    permit.release();
+                }
+            } finally {
+                llmPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void emit(ResponseBodyEmitter emitter, AtomicInteger remaining, ATSBatchItemResponse item) {
+        try {
+            // One send per line so lines from concurrent files never interleave
+            emitter.send(objectMapper.writeValueAsString(item) + "\n", MediaType.APPLICATION_NDJSON);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping batch result for {}: {}", item.getFileName(), e.toString());
+        }
+        if (remaining.decrementAndGet() == 0) {
+            emitter.complete();
+        }
+    }
+
+    private BatchFile readFile(int index, String fileName, InputStream in) throws IOException {
+        if (fileName == null ||
+                (!fileName.toLowerCase().endsWith(".pdf") &&
+                        !fileName.toLowerCase().endsWith(".docx"))) {
+            return failed(index, fileName, "Only PDF and DOCX files are allowed");
+        }
+
+        // Read one byte past the limit to detect oversized entries without trusting declared sizes
+        byte[] content = in.readNBytes((int) maxFileBytes + 1);
+        if (content.length == 0) {
+            return failed(index, fileName, "Please upload a file");
+        }
+        if (content.length > maxFileBytes) {
+            return failed(index, fileName, fileTooLarge());
+        }
+        return new BatchFile(index, fileName, content, null);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxFiles) {
+            throw new RuntimeException("A batch can contain at most " + maxFiles + " resumes");
+        }
+    }
+
+    private String fileTooLarge() {
+        return "File size must be less than " + DataSize.ofBytes(maxFileBytes).toMegabytes() + "MB";
+    }
+
+    private static boolean isZip(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".zip");
+    }
+
+    /**
+     * Caps how much a ZIP upload may inflate to in total, guarding against zip bombs. Does not close the zip.
+     */
+    private static class UnpackBudget extends FilterInputStream {
+
+        private final long limit;
+        private long remaining;
+
+        private UnpackBudget(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // the enclosing ZipInputStream owns the underlying stream
+        }
+
+        private void consume(int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("ZIP content must be less than " + DataSize.ofBytes(limit).toMegabytes() + "MB once unpacked");
+            }
+        }
+    }
+
+    private static BatchFile failed(int index, String fileName, String error) {
+        return new BatchFile(index, fileName, null, error);
+    }
+
+    private static ATSBatchItemResponse failedItem(BatchFile file, String error) {
+        return ATSBatchItemResponse.builder()
+                .index(file.index())
+                .fileName(file.fileName())
+                .status(STATUS_FAILED)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,304 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.omkarbirajdar.resumebuilderapi.document.ATSAnalysisRecord;
+import in.omkarbirajdar.resumebuilderapi.document.ATSAnalysisRecord.SectionFindings;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSHistoryEntry;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import in.omkarbirajdar.resumebuilderapi.repository.ATSAnalysisRecordRepository;
+import in.omkarbirajdar.resumebuilderapi.util.HashUtil;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections.Section;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeTextSerializer;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeTextSerializer.Fragment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Persisted, incremental ATS analysis of stored resumes.
+ * <p>
+ * The model judges each section on its own, and the findings are stored per section next to a hash of the
+ * section text. When the resume is analysed again only the sections whose hash changed go into the prompt,
+ * the findings of the others are carried over, so a small edit costs a small prompt. A section the model
+ * leaves out of its answer is neither scored nor stored, so the next analysis sends it again. Format score and
+ * repeated words come from the local scoring engine, which sees the whole resume. Every analysis is kept,
+ * which gives a score trend per resume.
+ */
+@Service
+@Slf4j
+public class ATSHistoryService {
+
+    // Bump whenever the section prompt or its parsing changes so stored findings are not reused across versions
+    private static final String PROMPT_VERSION = "s2";
+    private static final int MAX_KEYWORD_SUGGESTIONS = 15;
+    private static final int MAX_HISTORY = 100;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ATSAnalysisRecordRepository recordRepository;
+    private final MongoTemplate mongoTemplate;
+    private final LlmProvider llmProvider;
+    private final PromptCompactor promptCompactor;
+    private final ATSScoringEngine scoringEngine;
+    private final LiveATSScoringService liveScoringService;
+    private final ATSService atsService;
+
+    private final Counter reusedSections;
+    private final Counter analyzedSections;
+
+    public ATSHistoryService(ATSAnalysisRecordRepository recordRepository,
+                             MongoTemplate mongoTemplate,
+                             LlmProvider llmProvider,
+                             PromptCompactor promptCompactor,
+                             ATSScoringEngine scoringEngine,
+                             LiveATSScoringService liveScoringService,
+                             ATSService atsService,
+                             MeterRegistry meterRegistry) {
+        this.recordRepository = recordRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.llmProvider = llmProvider;
+        this.promptCompactor = promptCompactor;
+        this.scoringEngine = scoringEngine;
+        this.liveScoringService = liveScoringService;
+        this.atsService = atsService;
+        this.reusedSections = Counter.builder("ats.history.sections")
+                .description("Resume sections per incremental analysis, carried over or sent to the model")
+                .tag("outcome", "reused")
+                .register(meterRegistry);
+        this.analyzedSections = Counter.builder("ats.history.sections")
+                .description("Resume sections per incremental analysis, carried over or sent to the model")
+                .tag("outcome", "analyzed")
+                .register(meterRegistry);
+    }
+
+    public ATSAnalysisResponse analyze(Resume resume) {
+        //Step 1: group the resume into sections and hash each one
+        List<Fragment> fragments = ResumeTextSerializer.fragments(resume);
+        String resumeText = ResumeTextSerializer.serialize(fragments);
+        if (resumeText.isBlank()) {
+            throw new RuntimeException("Resume has no content to analyze");
+        }
+        Map<String, String> sectionTexts = new LinkedHashMap<>();
+        for (Fragment fragment : fragments) {
+            sectionTexts.merge(fragment.section().name(), fragment.text(), String::concat);
+        }
+        Map<String, String> sectionHashes = new LinkedHashMap<>();
+        sectionTexts.forEach((section, text) -> sectionHashes.put(section, HashUtil.sha256(text)));
+
+        //Step 2: carry over the findings of sections that did not change since the last analysis
+        String analysisVersion = PROMPT_VERSION + "|" + llmProvider.getModel();
+        Optional<ATSAnalysisRecord> previous = recordRepository
+                .findFirstByUserIdAndResumeIdOrderByCreatedAtDesc(resume.getUserId(), resume.getId())
+                .filter(record -> analysisVersion.equals(record.getAnalysisVersion()));
+        Map<String, SectionFindings> findings = new LinkedHashMap<>();
+        Set<String> changed = new LinkedHashSet<>();
+        sectionHashes.forEach((section, hash) -> {
+            SectionFindings carried = previous
+                    .filter(record -> hash.equals(record.getSectionHashes().get(section)))
+                    .map(record -> record.getSectionFindings().get(section))
+                    .orElse(null);
+            if (carried != null) {
+                findings.put(section, carried);
+            } else {
+                changed.add(section);
+            }
+        });
+
+        if (changed.isEmpty() && previous.isPresent()
+                && previous.get().getSectionHashes().keySet().equals(sectionHashes.keySet())) {
+            log.info("Resume {} is unchanged since its last analysis", resume.getId());
+            return previous.get().getResult();
+        }
+
+        //Step 3: send only the changed sections to the model
+        List<String> analyzed = new ArrayList<>();
+        if (!changed.isEmpty()) {
+            List<Fragment> changedFragments = fragments.stream()
+                    .filter(fragment -> changed.contains(fragment.section().name()))
+                    .toList();
+            try {
+                Map<String, SectionFindings> answered = analyzeSections(changedFragments, changed);
+                findings.putAll(answered);
+                analyzed.addAll(answered.keySet());
+            } catch (LlmUnavailableException e) {
+                log.warn("Using local ATS scoring as fallback for resume {}: {}", resume.getId(), e.getMessage());
+                return atsService.fallbackAnalysis(resumeText, e.getMessage(), "incremental");
+            }
+            if (analyzed.size() < changed.size()) {
+                log.warn("Model left out {} of {} sections of resume {}, they are analyzed again next time",
+                        changed.size() - analyzed.size(), changed.size(), resume.getId());
+            }
+        }
+        reusedSections.increment(sectionHashes.size() - changed.size());
+        analyzedSections.increment(analyzed.size());
+        log.info("Analyzed {} of {} sections of resume {}", analyzed.size(), sectionHashes.size(), resume.getId());
+
+        //Step 4: merge the findings in document order and record the analysis, hashes only for sections with findings
+        Map<String, SectionFindings> ordered = new LinkedHashMap<>();
+        Map<String, String> scoredHashes = new LinkedHashMap<>();
+        sectionHashes.forEach((section, hash) -> {
+            SectionFindings sectionFindings = findings.get(section);
+            if (sectionFindings != null) {
+                ordered.put(section, sectionFindings);
+                scoredHashes.put(section, hash);
+            }
+        });
+        ATSAnalysisResponse response = merge(resume, resumeText, sectionTexts, ordered);
+
+        recordRepository.save(ATSAnalysisRecord.builder()
+                .userId(resume.getUserId())
+                .resumeId(resume.getId())
+                .analysisVersion(analysisVersion)
+                .sectionHashes(scoredHashes)
+                .sectionFindings(ordered)
+                .analyzedSections(analyzed)
+                .result(response)
+                .createdAt(Instant.now())
+                .build());
+        return response;
+    }
+
+    public List<ATSHistoryEntry> getHistory(String userId, String resumeId, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_HISTORY)));
+        return recordRepository.findHistory(userId, resumeId, page).stream()
+                .map(record -> ATSHistoryEntry.builder()
+                        .analyzedAt(record.getCreatedAt())
+                        .overallScore(record.getResult().getOverallScore())
+                        .formatScore(record.getResult().getFormatScore())
+                        .contentScore(record.getResult().getContentScore())
+                        .analyzedSections(record.getAnalyzedSections())
+                        .build())
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(ATSAnalysisRecord.class).createIndex(new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .on("resumeId", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC));
+        } catch (Exception e) {
+            log.warn("Could not create indexes on ats_analyses: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Findings of the sections the model answered for. Sections are named in the prompt by the heading they
+     * are written under, and the answer is mapped back to the section names.
+     */
+    private Map<String, SectionFindings> analyzeSections(List<Fragment> fragments, Set<String> sections) {
+        Map<String, String> headings = new LinkedHashMap<>();
+        sections.forEach(section -> headings.put(ResumeTextSerializer.heading(Section.valueOf(section)), section));
+        String prompt = """
+         Analyze these resume sections and return ONLY valid JSON (no markdown, no code blocks, just pure JSON),
+         with one entry for each of these sections: %s
+       {
+         "<Section heading>": {
+           "score": <number 0-100>,
+           "issues": ["issue1", "issue2", ...],
+           "suggestions": ["suggestion1", "suggestion2", ...],
+           "keywordSuggestions": ["keyword1", "keyword2", ...]
+         }
+       }
+
+        Rules:
+        1. Judge each section on its own, the rest of the resume is unchanged and not shown.
+        2. Only suggest keywords that are NOT already present in the section text (case-insensitive).
+        3. Only flag repetition in descriptive bullet sentences, not in section headers or skill lists.
+
+      Resume sections:
+      %s
+      """.formatted(String.join(", ", headings.keySet()),
+                promptCompactor.compact(ResumeTextSerializer.serializeWithHeadings(fragments)).text());
+
+        String content = llmProvider.chatCompletion(prompt);
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(content);
+        } catch (Exception e) {
+            log.error("Failed to parse LLM section analysis: {}", content, e);
+            throw new LlmUnavailableException("LLM returned an analysis that could not be parsed", e);
+        }
+
+        Map<String, SectionFindings> findings = new LinkedHashMap<>();
+        headings.forEach((heading, section) -> {
+            JsonNode node = json.path(heading);
+            int score = node.path("score").asInt(-1);
+            if (score < 0) {
+                // Skipped by the model, it has no findings rather than made-up ones
+                return;
+            }
+            findings.put(section, SectionFindings.builder()
+                    .score(Math.min(100, score))
+                    .issues(textValues(node.path("issues")))
+                    .suggestions(textValues(node.path("suggestions")))
+                    .keywordSuggestions(textValues(node.path("keywordSuggestions")))
+                    .build());
+        });
+        return findings;
+    }
+
+    private ATSAnalysisResponse merge(Resume resume, String resumeText, Map<String, String> sectionTexts,
+                                      Map<String, SectionFindings> findings) {
+        // Format and repetition need the whole resume, the local engine scores it from cached section features
+        ATSAnalysisResponse local = liveScoringService.score(resume);
+
+        long weightedScore = 0;
+        long totalWeight = 0;
+        List<String> issues = new ArrayList<>();
+        List<String> suggestions = new ArrayList<>();
+        Set<String> keywords = new LinkedHashSet<>();
+        for (Map.Entry<String, SectionFindings> entry : findings.entrySet()) {
+            // Longer sections carry more of the content score
+            int weight = sectionTexts.get(entry.getKey()).length();
+            SectionFindings section = entry.getValue();
+            weightedScore += (long) section.getScore() * weight;
+            totalWeight += weight;
+            issues.addAll(section.getIssues());
+            suggestions.addAll(section.getSuggestions());
+            keywords.addAll(section.getKeywordSuggestions());
+        }
+        int contentScore = totalWeight == 0 ? local.getContentScore() : (int) Math.round((double) weightedScore / totalWeight);
+
+        return ATSAnalysisResponse.builder()
+                .overallScore(ATSScoringEngine.overallScore(local.getFormatScore(), contentScore))
+                .formatScore(local.getFormatScore())
+                .contentScore(contentScore)
+                .keywordSuggestions(scoringEngine.dropPresentKeywords(new ArrayList<>(keywords), resumeText).stream()
+                        .limit(MAX_KEYWORD_SUGGESTIONS)
+                        .toList())
+                .repetitiveWords(local.getRepetitiveWords())
+                .issues(issues)
+                .suggestions(suggestions)
+                .build();
+    }
+
+    private static List<String> textValues(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.asText()));
+        return values;
+    }
+}
@@ -0,0 +1,438 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import in.omkarbirajdar.resumebuilderapi.document.ATSJob;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSJobResponse;
+import in.omkarbirajdar.resumebuilderapi.exception.TooManyRequestsException;
+import in.omkarbirajdar.resumebuilderapi.repository.ATSJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Durable ATS analysis queue shared by every API instance through the {@code ats_jobs} collection.
+ * <p>
+ * Each instance polls for work only while it has an idle worker, and claims a job by taking a lease on it
+ * with an atomic find-and-modify, so load follows actual capacity. Workers heartbeat to extend their leases,
+ * and every write is fenced on the lease owner. When an instance dies or is redeployed its leases run out and
+ * another instance retries the job, starting from the stored text if extraction had already finished.
+ */
+@Service
+@Slf4j
+public class ATSJobService {
+
+    public static final String STATUS_QUEUED = "queued";
+    public static final String STATUS_EXTRACTING = "extracting";
+    public static final String STATUS_SCORING = "scoring";
+    public static final String STATUS_DONE = "done";
+    public static final String STATUS_FAILED = "failed";
+
+    private static final List<String> ACTIVE_STATUSES = List.of(STATUS_QUEUED, STATUS_EXTRACTING, STATUS_SCORING);
+
+    private final ATSService atsService;
+    private final TaskExecutor atsTaskExecutor;
+    private final ATSAdmissionControl admissionControl;
+    private final ATSJobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+
+    private final String nodeId;
+    private final Duration leaseDuration;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Semaphore idleWorkers;
+
+    // Jobs leased by this instance, kept alive by the heartbeat
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    // Subscribers are local to the instance that holds the connection, the job may run anywhere
+    private final Map<String, JobSubscribers> subscribers = new ConcurrentHashMap<>();
+
+    private volatile boolean stopping;
+
+    @Value("${ats.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    public ATSJobService(ATSService atsService,
+                         @Qualifier("atsTaskExecutor") TaskExecutor atsTaskExecutor,
+                         ATSAdmissionControl admissionControl,
+                         ATSJobRepository jobRepository,
+                         MongoTemplate mongoTemplate,
+                         @Value("${ats.jobs.node-id:}") String nodeId,
+                         @Value("${ats.jobs.workers:4}") int workers,
+                         @Value("${ats.jobs.lease-duration:30s}") Duration leaseDuration,
+                         @Value("${ats.jobs.max-attempts:3}") int maxAttempts,
+                         @Value("${ats.jobs.retention-minutes:15}") long retentionMinutes) {
+        this.atsService = atsService;
+        this.atsTaskExecutor = atsTaskExecutor;
+        this.admissionControl = admissionControl;
+        this.jobRepository = jobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.nodeId = nodeId.isBlank()
+                ? System.getenv().getOrDefault("HOSTNAME", "ats") + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+        this.idleWorkers = new Semaphore(workers);
+        this.leaseDuration = leaseDuration;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    public ATSJobResponse submit(String userId, byte[] content, String fileName) {
+        //Step 1: persist the job, any instance with an idle worker may pick it up
+        Instant now = Instant.now();
+        ATSJob job = jobRepository.insert(ATSJob.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .fileName(fileName)
+                .content(content)
+                .status(STATUS_QUEUED)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        //Step 2: nudge the local workers so an idle instance does not wait for the next poll
+        try {
+            atsTaskExecutor.execute(this::pollForJobs);
+        } catch (RuntimeException e) {
+            log.debug("Could not nudge ATS workers, job {} waits for the next poll", job.getId());
+        }
+
+        log.info("Queued ATS job {} for user {}", job.getId(), userId);
+
+        //Step 3: return the job handle
+        return toResponse(job);
+    }
+
+    public ATSJobResponse getJob(String jobId, String userId) {
+        return toResponse(findJob(jobId, userId));
+    }
+
+    public SseEmitter subscribe(String jobId, String userId) {
+        ATSJob job = findJob(jobId, userId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+
+        emitter.onCompletion(() -> unsubscribe(jobId, emitter));
+        emitter.onTimeout(() -> unsubscribe(jobId, emitter));
+        emitter.onError(e -> unsubscribe(jobId, emitter));
+        subscribers.compute(jobId, (id, jobSubscribers) -> {
+            JobSubscribers current = jobSubscribers != null ? jobSubscribers : new JobSubscribers();
+            current.emitters.add(emitter);
+            return current;
+        });
+
+        // Replay the current state so late subscribers never miss the terminal event
+        send(jobId, toResponse(job), emitter);
+        return emitter;
+    }
+
+    /**
+     * Claims queued or abandoned jobs for as long as this instance has idle workers.
+     */
+    @Scheduled(fixedDelayString = "${ats.jobs.poll-interval-ms:1000}")
+    public void pollForJobs() {
+        while (!stopping && idleWorkers.tryAcquire()) {
+            ATSJob job;
+            try {
+                job = claimNextJob();
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                log.warn("Could not claim an ATS job: {}", e.getMessage());
+                return;
+            }
+            if (job == null) {
+                idleWorkers.release();
+                return;
+            }
+
+            try {
+                atsTaskExecutor.execute(() -> {
+                    try {
+                        run(job);
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                releaseLease(job.getId());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ats.jobs.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        Instant leaseExpiresAt = Instant.now().plus(leaseDuration);
+        for (String jobId : runningJobs) {
+            long matched = mongoTemplate.updateFirst(ownedBy(jobId), new Update().set("leaseExpiresAt", leaseExpiresAt),
+                    ATSJob.class).getMatchedCount();
+            if (matched == 0) {
+                // The lease ran out before we renewed it, the fenced writes of the worker will notice
+                log.warn("Lost the lease on ATS job {}", jobId);
+            }
+        }
+    }
+
+    /**
+     * Fails jobs whose lease has run out too many times, so a resume that keeps crashing workers is not retried forever.
+     */
+    @Scheduled(fixedDelayString = "${ats.jobs.reaper-interval-ms:30000}")
+    public void failExhaustedJobs() {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("status").in(ACTIVE_STATUSES)
+                .and("leaseExpiresAt").lt(now)
+                .and("attempts").gte(maxAttempts));
+        long failed = mongoTemplate.updateMulti(query, terminal(new Update(), STATUS_FAILED, now)
+                .set("error", "Failed to analyze resume: gave up after " + maxAttempts + " attempts"), ATSJob.class)
+                .getModifiedCount();
+        if (failed > 0) {
+            log.warn("Failed {} ATS jobs that exhausted their attempts", failed);
+        }
+    }
+
+    /**
+     * Pushes progress made on other instances to the subscribers connected here.
+     */
+    @Scheduled(fixedDelayString = "${ats.jobs.subscriber-refresh-ms:1000}")
+    public void refreshSubscribers() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Query query = withoutPayload(new Query(Criteria.where("id").in(subscribers.keySet())));
+        mongoTemplate.find(query, ATSJob.class).forEach(this::notifySubscribers);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(ATSJob.class).createIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("leaseExpiresAt", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.ASC));
+            mongoTemplate.indexOps(ATSJob.class)
+                    .createIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO));
+        } catch (Exception e) {
+            log.warn("Could not create indexes on ats_jobs: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Jobs still running when the process exits are retried elsewhere once their leases run out
+        stopping = true;
+    }
+
+    private ATSJob claimNextJob() {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("status").in(ACTIVE_STATUSES),
+                Criteria.where("attempts").lt(maxAttempts),
+                new Criteria().orOperator(
+                        Criteria.where("leaseExpiresAt").is(null),
+                        Criteria.where("leaseExpiresAt").lt(now))))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("leaseOwner", nodeId)
+                .set("leaseExpiresAt", now.plus(leaseDuration))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), ATSJob.class);
+    }
+
+    private void run(ATSJob job) {
+        runningJobs.add(job.getId());
+        ATSAdmissionControl.Permit permit = null;
+        try {
+            // Queued jobs share the global analysis slots with synchronous requests
+            try {
+                permit = admissionControl.acquire();
+            } catch (TooManyRequestsException e) {
+                releaseLease(job.getId());
+                return;
+            }
+
+            //Step 1: extract the text, unless an earlier attempt already did
+            String resumeText = job.getExtractedText();
+            if (resumeText == null) {
+                transition(job.getId(), STATUS_EXTRACTING, new Update());
+                resumeText = atsService.extractText(job.getContent(), job.getFileName());
+            }
+
+            //Step 2: store the text and the local score, the file itself is no longer needed
+            transition(job.getId(), STATUS_SCORING, new Update()
+                    .set("extractedText", resumeText)
+                    .unset("content")
+                    .set("provisionalResult", atsService.provisionalScore(resumeText)));
+
+            //Step 3: run the analysis and store the result
+            ATSAnalysisResponse result = atsService.analyzeText(resumeText);
+            finish(job.getId(), STATUS_DONE, new Update().set("result", result));
+
+        } catch (LeaseLostException e) {
+            log.warn("ATS job {} was taken over by another instance", job.getId());
+        } catch (Exception e) {
+            log.error("ATS job {} failed", job.getId(), e);
+            try {
+                finish(job.getId(), STATUS_FAILED, new Update().set("error", "Failed to analyze resume: " + e.getMessage()));
+            } catch (RuntimeException ex) {
+                log.warn("Could not record the failure of ATS job {}: {}", job.getId(), ex.getMessage());
+            }
+        } finally {
+            runningJobs.remove(job.getId());
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * Moves a job this instance holds to the next status and renews its lease.
+     */
+    private void transition(String jobId, String status, Update update) {
+        Instant now = Instant.now();
+        update.set("status", status)
+                .set("updatedAt", now)
+                .set("leaseExpiresAt", now.plus(leaseDuration));
+        write(jobId, update);
+    }
+
+    private void finish(String jobId, String status, Update update) {
+        write(jobId, terminal(update, status, Instant.now()));
+    }
+
+    private void write(String jobId, Update update) {
+        ATSJob updated = mongoTemplate.findAndModify(withoutPayload(ownedBy(jobId)), update,
+                FindAndModifyOptions.options().returnNew(true), ATSJob.class);
+        if (updated == null) {
+            throw new LeaseLostException();
+        }
+        notifySubscribers(updated);
+    }
+
+    /**
+     * Hands a claimed job back without counting the attempt, for when this instance cannot run it right now.
+     */
+    private void releaseLease(String jobId) {
+        mongoTemplate.updateFirst(ownedBy(jobId), new Update()
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt")
+                .inc("attempts", -1), ATSJob.class);
+    }
+
+    private Update terminal(Update update, String status, Instant now) {
+        return update.set("status", status)
+                .set("updatedAt", now)
+                .set("expiresAt", now.plus(retention))
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt")
+                .unset("content")
+                .unset("extractedText");
+    }
+
+    private Query ownedBy(String jobId) {
+        return new Query(Criteria.where("id").is(jobId).and("leaseOwner").is(nodeId));
+    }
+
+    private static Query withoutPayload(Query query) {
+        query.fields().exclude("content").exclude("extractedText");
+        return query;
+    }
+
+    private ATSJob findJob(String jobId, String userId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new RuntimeException("ATS job not found"));
+    }
+
+    private void notifySubscribers(ATSJob job) {
+        JobSubscribers jobSubscribers = subscribers.get(job.getId());
+        if (jobSubscribers == null) {
+            return;
+        }
+        // Local writes and the refresh poll may both report the same state, send each state once
+        synchronized (jobSubscribers) {
+            if (jobSubscribers.lastSent != null && !job.getUpdatedAt().isAfter(jobSubscribers.lastSent)) {
+                return;
+            }
+            jobSubscribers.lastSent = job.getUpdatedAt();
+        }
+        ATSJobResponse response = toResponse(job);
+        jobSubscribers.emitters.forEach(emitter -> send(job.getId(), response, emitter));
+    }
+
+    private void unsubscribe(String jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, jobSubscribers) -> {
+            jobSubscribers.emitters.remove(emitter);
+            return jobSubscribers.emitters.isEmpty() ? null : jobSubscribers;
+        });
+    }
+
+    private void send(String jobId, ATSJobResponse response, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name(response.getStatus()).data(response));
+            if (isTerminal(response.getStatus())) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(jobId, emitter);
+        }
+    }
+
+    private static boolean isTerminal(String status) {
+        return STATUS_DONE.equals(status) || STATUS_FAILED.equals(status);
+    }
+
+    private static ATSJobResponse toResponse(ATSJob job) {
+        return ATSJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .provisionalResult(job.getProvisionalResult())
+                .result(job.getResult())
+                .error(job.getError())
+                .attempts(job.getAttempts())
+                .createdAt(LocalDateTime.ofInstant(job.getCreatedAt(), ZoneId.systemDefault()))
+                .updatedAt(LocalDateTime.ofInstant(job.getUpdatedAt(), ZoneId.systemDefault()))
+                .build();
+    }
+
+    private static class JobSubscribers {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private Instant lastSent;
+    }
+
+    /**
+     * Thrown when a fenced write finds the job leased to another instance.
+     */
+    private static class LeaseLostException extends RuntimeException {
+        private LeaseLostException() {
+            super("Lease lost", null, false, false);
+        }
+    }
+}
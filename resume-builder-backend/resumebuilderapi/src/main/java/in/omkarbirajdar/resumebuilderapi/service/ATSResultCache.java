@@ -0,0 +1,116 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.omkarbirajdar.resumebuilderapi.document.ATSCacheEntry;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.repository.ATSCacheRepository;
+import in.omkarbirajdar.resumebuilderapi.util.HashUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of ATS analyses keyed by the content of the resume text, not by the uploaded file.
+ * The first tier is a bounded Caffeine cache, the second the {@code ats_result_cache} collection with a TTL index.
+ */
+@Service
+@Slf4j
+public class ATSResultCache {
+
+    private final ATSCacheRepository cacheRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, ATSAnalysisResponse> memoryCache;
+    private final Duration ttl;
+
+    private final Counter mongoHits;
+    private final Counter mongoMisses;
+
+    public ATSResultCache(ATSCacheRepository cacheRepository,
+                          MongoTemplate mongoTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${ats.cache.max-entries:10000}") long maxEntries,
+                          @Value("${ats.cache.ttl:7d}") Duration ttl) {
+        this.cacheRepository = cacheRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.ttl = ttl;
+        this.memoryCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, memoryCache, "atsResults", "tier", "memory");
+        this.mongoHits = Counter.builder("ats.cache.mongo.requests").tag("result", "hit").register(meterRegistry);
+        this.mongoMisses = Counter.builder("ats.cache.mongo.requests").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Builds the cache key from whitespace-normalized text, so re-exports of the same resume hit the same entry.
+     */
+    public static String keyFor(String resumeText, String analysisVersion) {
+        String normalized = resumeText.replaceAll("\\s+", " ").trim();
+        return HashUtil.sha256(analysisVersion + "|" + normalized);
+    }
+
+    public Optional<ATSAnalysisResponse> get(String key) {
+        //Step 1: check the in-heap tier
+        ATSAnalysisResponse cached = memoryCache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        //Step 2: fall back to the persisted tier and promote hits
+        try {
+            Optional<ATSCacheEntry> entry = cacheRepository.findById(key)
+                    .filter(e -> e.getCreatedAt().plus(ttl).isAfter(Instant.now()));
+            if (entry.isPresent()) {
+                mongoHits.increment();
+                memoryCache.put(key, entry.get().getResult());
+                return Optional.of(entry.get().getResult());
+            }
+            mongoMisses.increment();
+        } catch (Exception e) {
+            log.warn("ATS result cache lookup failed for {}: {}", key, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    public void put(String key, ATSAnalysisResponse response) {
+        memoryCache.put(key, response);
+        try {
+            cacheRepository.save(ATSCacheEntry.builder()
+                    .id(key)
+                    .result(response)
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to persist ATS result {}: {}", key, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureTtlIndex() {
+        try {
+            mongoTemplate.indexOps(ATSCacheEntry.class)
+                    .createIndex(new Index().on("createdAt", Sort.Direction.ASC).expire(ttl));
+        } catch (Exception e) {
+            log.warn("Could not create TTL index on ats_result_cache: {}", e.getMessage());
+        }
+    }
+}
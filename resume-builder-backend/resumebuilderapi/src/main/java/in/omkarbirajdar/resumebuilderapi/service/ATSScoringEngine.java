@@ -0,0 +1,322 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections.Section;
+import in.omkarbirajdar.resumebuilderapi.util.TermCounter;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic, in-process ATS scoring. Used for instant provisional scores, as the real fallback when
+ * the LLM is unavailable and to sanity-check LLM output. Works in a single pass per section and keeps
+ * word counts in primitive counters, so a typical resume scores in well under a millisecond.
+ */
+@Service
+public class ATSScoringEngine {
+
+    public record SectionFeatures(Section section, int words, int statements, int actionVerbStatements,
+                                  int quantifiedStatements, TermCounter terms) {
+    }
+
+    public record ContactFeatures(boolean email, boolean phone, boolean profileLink, boolean location) {
+
+        int presentCount() {
+            return (email ? 1 : 0) + (phone ? 1 : 0) + (profileLink ? 1 : 0) + (location ? 1 : 0);
+        }
+    }
+
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+\\.[\\w.-]+");
+    private static final Pattern PHONE = Pattern.compile("\\+?\\d[\\d\\s().-]{7,}\\d");
+    private static final Pattern PROFILE_LINK = Pattern.compile("(?i)linkedin\\.com|github\\.com|https?://|www\\.");
+    private static final Pattern LOCATION = Pattern.compile("\\b[A-Z][a-zA-Z]+,\\s*[A-Z][a-zA-Z]+");
+
+    private static final Set<Section> DESCRIPTIVE_SECTIONS = EnumSet.of(
+            Section.SUMMARY, Section.EXPERIENCE, Section.PROJECTS, Section.OTHER);
+
+    private static final int MIN_STATEMENT_WORDS = 4;
+    private static final int REPETITION_THRESHOLD = 3;
+    private static final int MAX_REPETITIVE_WORDS = 8;
+    private static final int MAX_KEYWORD_SUGGESTIONS = 5;
+
+    private static final Set<String> ACTION_VERBS = Set.of(
+            "achieved", "analyzed", "architected", "automated", "built", "collaborated", "conducted", "coordinated",
+            "created", "decreased", "delivered", "designed", "developed", "directed", "drove", "engineered",
+            "established", "executed", "expanded", "facilitated", "generated", "grew", "implemented", "improved",
+            "increased", "initiated", "integrated", "introduced", "launched", "led", "managed", "mentored",
+            "migrated", "modernized", "negotiated", "optimized", "orchestrated", "organized", "owned", "pioneered",
+            "planned", "presented", "produced", "programmed", "published", "redesigned", "reduced", "refactored",
+            "researched", "resolved", "restructured", "scaled", "shipped", "simplified", "spearheaded", "streamlined",
+            "supervised", "tested", "trained", "transformed", "upgraded", "won", "wrote");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "also", "an", "and", "are", "as", "at", "be", "been", "by", "for", "from", "has", "have",
+            "in", "into", "is", "it", "its", "of", "on", "or", "our", "over", "that", "the", "their", "this", "to",
+            "using", "was", "we", "were", "which", "while", "with", "within", "across", "through", "other", "more",
+            "team", "work", "project", "projects", "experience");
+
+    private static final List<String> GENERIC_KEYWORDS = List.of(
+            "leadership", "collaboration", "problem-solving", "communication", "stakeholder management",
+            "cross-functional", "agile", "mentoring", "data-driven", "optimization");
+
+    public ATSAnalysisResponse score(String resumeText) {
+        List<ResumeSections.Block> blocks = ResumeSections.split(resumeText);
+        List<SectionFeatures> features = new ArrayList<>(blocks.size());
+        for (ResumeSections.Block block : blocks) {
+            features.add(extractFeatures(block.section(), block.text()));
+        }
+        return aggregate(features, contactFeatures(resumeText), resumeText);
+    }
+
+    public SectionFeatures extractFeatures(Section section, String text) {
+        TermCounter terms = new TermCounter();
+        int words = 0;
+        int statements = 0;
+        int actionVerbStatements = 0;
+        int quantifiedStatements = 0;
+
+        int lineStart = 0;
+        int length = text.length();
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+
+            int lineWords = 0;
+            boolean quantified = false;
+            String firstWord = null;
+
+            int i = lineStart;
+            while (i < lineEnd) {
+                char c = text.charAt(i);
+                if (Character.isDigit(c) || c == '%' || c == '$') {
+                    quantified = true;
+                }
+                if (!Character.isLetterOrDigit(c)) {
+                    i++;
+                    continue;
+                }
+                int wordStart = i;
+                while (i < lineEnd && isWordChar(text.charAt(i))) {
+                    i++;
+                }
+                String word = text.substring(wordStart, i).toLowerCase(Locale.ROOT);
+                if (firstWord == null) {
+                    firstWord = word;
+                }
+                lineWords++;
+                terms.increment(word);
+            }
+
+            words += lineWords;
+            if (lineWords >= MIN_STATEMENT_WORDS) {
+                statements++;
+                if (firstWord != null && ACTION_VERBS.contains(firstWord)) {
+                    actionVerbStatements++;
+                }
+                if (quantified) {
+                    quantifiedStatements++;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new SectionFeatures(section, words, statements, actionVerbStatements, quantifiedStatements, terms);
+    }
+
+    public ContactFeatures contactFeatures(String text) {
+        return new ContactFeatures(
+                EMAIL.matcher(text).find(),
+                PHONE.matcher(text).find(),
+                PROFILE_LINK.matcher(text).find(),
+                LOCATION.matcher(text).find());
+    }
+
+    public ATSAnalysisResponse aggregate(Collection<SectionFeatures> features, ContactFeatures contact, String resumeText) {
+        //Step 1: fold the per-section features together
+        Set<Section> present = EnumSet.noneOf(Section.class);
+        TermCounter descriptiveTerms = new TermCounter(256);
+        TermCounter skillTerms = new TermCounter();
+        int words = 0;
+        int statements = 0;
+        int actionVerbStatements = 0;
+        int quantifiedStatements = 0;
+
+        for (SectionFeatures section : features) {
+            if (section.words() > 0) {
+                present.add(section.section());
+            }
+            words += section.words();
+            if (DESCRIPTIVE_SECTIONS.contains(section.section())) {
+                statements += section.statements();
+                actionVerbStatements += section.actionVerbStatements();
+                quantifiedStatements += section.quantifiedStatements();
+                descriptiveTerms.addAll(section.terms());
+            } else if (section.section() == Section.SKILLS) {
+                skillTerms.addAll(section.terms());
+            }
+        }
+
+        List<String> issues = new ArrayList<>();
+        List<String> suggestions = new ArrayList<>();
+
+        //Step 2: format score from structure, contact details and length
+        boolean hasExperience = present.contains(Section.EXPERIENCE) || present.contains(Section.PROJECTS);
+        int keySections = (present.contains(Section.SUMMARY) ? 1 : 0)
+                + (hasExperience ? 1 : 0)
+                + (present.contains(Section.EDUCATION) ? 1 : 0)
+                + (present.contains(Section.SKILLS) ? 1 : 0);
+        int formatScore = 40 * keySections / 4
+                + 25 * contact.presentCount() / 4
+                + lengthScore(words)
+                + (statements >= 3 ? 15 : 5 * statements);
+
+        if (!present.contains(Section.SUMMARY)) {
+            issues.add("No professional summary section was found");
+            suggestions.add("Add a 2-3 line professional summary at the top of your resume");
+        }
+        if (!hasExperience) {
+            issues.add("No experience or projects section was found");
+        }
+        if (!present.contains(Section.EDUCATION)) {
+            issues.add("No education section was found");
+        }
+        if (!present.contains(Section.SKILLS)) {
+            issues.add("No skills section was found");
+            suggestions.add("Add a dedicated skills section so ATS parsers can match keywords");
+        }
+        if (!contact.email() || !contact.phone()) {
+            issues.add("Contact information is incomplete (email and phone number are expected)");
+        }
+        if (!contact.profileLink()) {
+            suggestions.add("Add a LinkedIn, GitHub or portfolio link to your contact details");
+        }
+        if (words < 250) {
+            issues.add("Resume is quite short (" + words + " words)");
+            suggestions.add("Expand your experience and projects with concrete responsibilities and results");
+        } else if (words > 1200) {
+            issues.add("Resume is long (" + words + " words)");
+            suggestions.add("Trim older or less relevant content to keep the resume to one or two pages");
+        }
+
+        //Step 3: content score from action verbs, quantified results and repetition
+        Map<String, Integer> repetitiveWords = repetitiveWords(descriptiveTerms, skillTerms);
+        double actionVerbRatio = statements == 0 ? 0 : (double) actionVerbStatements / statements;
+        double quantifiedRatio = statements == 0 ? 0 : (double) quantifiedStatements / statements;
+        int contentScore = (int) Math.round(40 * Math.min(1.0, actionVerbRatio / 0.6)
+                + 30 * Math.min(1.0, quantifiedRatio / 0.4)
+                + Math.max(0, 15 - 3 * repetitiveWords.size())
+                + (present.contains(Section.SUMMARY) ? 15 : 0));
+
+        if (statements > 0 && actionVerbRatio < 0.5) {
+            issues.add("Only " + Math.round(actionVerbRatio * 100) + "% of bullet points start with an action verb");
+            suggestions.add("Start bullet points with strong action verbs such as \"led\", \"built\" or \"improved\"");
+        }
+        if (statements > 0 && quantifiedRatio < 0.3) {
+            issues.add("Few achievements are quantified with numbers or percentages");
+            suggestions.add("Add measurable results to your experience bullet points");
+        }
+        if (!repetitiveWords.isEmpty()) {
+            suggestions.add("Vary your wording, some words are repeated often: " + String.join(", ", repetitiveWords.keySet()));
+        }
+
+        //Step 4: combine
+        return ATSAnalysisResponse.builder()
+                .overallScore(overallScore(clamp(formatScore), clamp(contentScore)))
+                .formatScore(clamp(formatScore))
+                .contentScore(clamp(contentScore))
+                .keywordSuggestions(dropPresentKeywords(GENERIC_KEYWORDS, resumeText).stream()
+                        .limit(MAX_KEYWORD_SUGGESTIONS)
+                        .toList())
+                .repetitiveWords(repetitiveWords)
+                .issues(issues)
+                .suggestions(suggestions)
+                .build();
+    }
+
+    /**
+     * Removes keywords that already appear in the resume text as whole words, ignoring case.
+     */
+    public List<String> dropPresentKeywords(List<String> keywords, String resumeText) {
+        if (keywords == null || keywords.isEmpty()) {
+            return List.of();
+        }
+        String haystack = resumeText.toLowerCase(Locale.ROOT);
+        List<String> missing = new ArrayList<>(keywords.size());
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.isBlank() && !containsWord(haystack, keyword.trim().toLowerCase(Locale.ROOT))) {
+                missing.add(keyword);
+            }
+        }
+        return missing;
+    }
+
+    private Map<String, Integer> repetitiveWords(TermCounter descriptiveTerms, TermCounter skillTerms) {
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        descriptiveTerms.forEach((word, count) -> {
+            if (count >= REPETITION_THRESHOLD && word.length() > 3 && !STOP_WORDS.contains(word)
+                    && !skillTerms.contains(word) && !Character.isDigit(word.charAt(0))) {
+                candidates.add(Map.entry(word, count));
+            }
+        });
+        candidates.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(MAX_REPETITIVE_WORDS, candidates.size()); i++) {
+            result.put(candidates.get(i).getKey(), candidates.get(i).getValue());
+        }
+        return result;
+    }
+
+    private int lengthScore(int words) {
+        if (words >= 300 && words <= 1000) {
+            return 20;
+        }
+        if (words >= 150 && words <= 1400) {
+            return 12;
+        }
+        return 5;
+    }
+
+    private static boolean containsWord(String haystack, String word) {
+        int from = 0;
+        while (true) {
+            int index = haystack.indexOf(word, from);
+            if (index < 0) {
+                return false;
+            }
+            int end = index + word.length();
+            boolean startOk = index == 0 || !Character.isLetterOrDigit(haystack.charAt(index - 1));
+            boolean endOk = end == haystack.length() || !Character.isLetterOrDigit(haystack.charAt(end));
+            if (startOk && endOk) {
+                return true;
+            }
+            from = index + 1;
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#' || c == '-';
+    }
+
+    /**
+     * The overall score of every analysis, whether its format and content scores come from the model or
+     * from this engine, so scores of uploads and of stored resumes can be compared.
+     */
+    public static int overallScore(int formatScore, int contentScore) {
+        return clamp((int) Math.round(0.45 * formatScore + 0.55 * contentScore));
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+}
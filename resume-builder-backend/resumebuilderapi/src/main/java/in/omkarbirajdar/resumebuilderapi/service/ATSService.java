@@ -3,87 +3,178 @@ package in.omkarbirajdar.resumebuilderapi.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import in.omkarbirajdar.resumebuilderapi.util.HashUtil;
+import in.omkarbirajdar.resumebuilderapi.util.IncrementalJsonObjectParser;
+import in.omkarbirajdar.resumebuilderapi.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.beans.factory.annotation.Value;
 
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ATSService {
-    @Value("${groq.api.key}")
-    private String groqApiKey;
-
-
-    private static final String GROQ_API_URL = "https://api.groq.com/openai/v1/chat/completions";
+    private final ATSResultCache resultCache;
+    private final LlmProvider llmProvider;
+    private final ATSScoringEngine scoringEngine;
+    private final ResumeTextExtractor textExtractor;
+    private final PromptCompactor promptCompactor;
+    private final MeterRegistry meterRegistry;
+
+    // Bump whenever the prompt or its parsing changes so cached analyses are not reused across versions
+    private static final String PROMPT_VERSION = "v4";
+    // Used when the model leaves out a score
+    private static final int DEFAULT_SCORE = 70;
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Identical concurrent uploads share one extraction and one LLM call
+    private final SingleFlight<String, String> extractionFlights = new SingleFlight<>();
+    private final SingleFlight<String, ATSAnalysisResponse> analysisFlights = new SingleFlight<>();
+
     public ATSAnalysisResponse analyzeResume(MultipartFile file) throws Exception {
         // Extract text from the uploaded file
-        String resumeText = extractTextFromFile(file);
+        String resumeText = extractText(readUpload(file), file.getOriginalFilename());
 
-        if (resumeText == null || resumeText.trim().isEmpty()) {
-            throw new RuntimeException("Could not extract text from the uploaded file");
+        // Call the LLM for analysis
+        return analyzeText(resumeText);
+    }
+
+    /**
+     * Reads an uploaded file into memory. The time spent on the wire is part of {@code http.server.requests},
+     * this covers copying the part Spring has already received, which grows once uploads spill to disk.
+     */
+    public byte[] readUpload(MultipartFile file) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return file.getBytes();
+        } finally {
+            sample.stop(Timer.builder("ats.stage.receive")
+                    .description("Time spent reading an uploaded resume into memory")
+                    .register(meterRegistry));
         }
+    }
 
-        log.info("Extracted {} characters from resume", resumeText.length());
+    public String extractText(byte[] content, String fileName) throws Exception {
+        // The name only picks the parser, so copies under other names of the same format share a flight
+        String fileKey = ResumeTextExtractor.fileType(fileName) + ":" + HashUtil.sha256(content);
+        return extractionFlights.execute(fileKey, () -> doExtractText(content, fileName));
+    }
 
-        // Call Anthropic API for analysis
-        ATSAnalysisResponse response = callAnthropicAPI(resumeText);
+    private String doExtractText(byte[] content, String fileName) throws IOException {
+        String resumeText = textExtractor.extract(content, fileName);
 
-        // Add 8 second delay for animation effect
-        Thread.sleep(8000);
+        if (resumeText == null || resumeText.trim().isEmpty()) {
+            throw new RuntimeException("Could not extract text from the uploaded file");
+        }
 
-        return response;
+        log.info("Extracted {} characters from resume", resumeText.length());
+        DistributionSummary.builder("ats.extraction.text.length")
+                .description("Characters of text extracted from an uploaded resume")
+                .baseUnit("characters")
+                .register(meterRegistry)
+                .record(resumeText.length());
+        return resumeText;
     }
 
-    private String extractTextFromFile(MultipartFile file) throws IOException {
-        String fileName = file.getOriginalFilename();
-        if (fileName == null) {
-            throw new RuntimeException("File name is null");
+    public ATSAnalysisResponse analyzeText(String resumeText) throws Exception {
+        //Step 1: return a previous analysis of the same text if we have one
+        String cacheKey = cacheKey(resumeText);
+        Optional<ATSAnalysisResponse> cached = resultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("ATS result cache hit for {}", cacheKey);
+            return cached.get();
         }
 
-        String lowerFileName = fileName.toLowerCase();
+        //Step 2: join an identical analysis that is already running, or start one
+        return analysisFlights.execute(cacheKey, () -> {
+            // Re-check, the previous flight for this key may have finished since the first lookup
+            Optional<ATSAnalysisResponse> completed = resultCache.get(cacheKey);
+            if (completed.isPresent()) {
+                return completed.get();
+            }
 
-        if (lowerFileName.endsWith(".pdf")) {
-            return extractTextFromPDF(file.getInputStream());
-        } else if (lowerFileName.endsWith(".docx")) {
-            return extractTextFromDOCX(file.getInputStream());
-        } else {
-            throw new RuntimeException("Unsupported file type. Only PDF and DOCX are allowed.");
-        }
+            //Step 3: call the LLM, fallbacks are flagged on the response and never cached
+            ATSAnalysisResponse response;
+            try {
+                response = callAnthropicAPI(resumeText);
+            } catch (LlmUnavailableException e) {
+                log.warn("Using local ATS scoring as fallback: {}", e.getMessage());
+                return fallbackAnalysis(resumeText, e.getMessage(), "blocking");
+            }
+
+            //Step 4: remember the result for identical uploads
+            resultCache.put(cacheKey, response);
+            return response;
+        });
     }
 
-    private String extractTextFromPDF(InputStream inputStream) throws IOException {
-        try (PDDocument document = PDDocument.load(inputStream)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+    /**
+     * Streaming variant of {@link #analyzeText(String)}: every top-level field of the analysis is passed to
+     * {@code onField} as soon as the model has finished writing it, and the returned future completes with the
+     * full response. Cached analyses are replayed field by field. Concurrent identical requests are not
+     * coalesced here, each caller gets its own stream.
+     */
+    public CompletableFuture<ATSAnalysisResponse> streamAnalysis(String resumeText, BiConsumer<String, JsonNode> onField) {
+        //Step 1: replay a previous analysis of the same text if we have one
+        String cacheKey = cacheKey(resumeText);
+        Optional<ATSAnalysisResponse> cached = resultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            log.info("ATS result cache hit for {}", cacheKey);
+            objectMapper.valueToTree(cached.get()).properties()
+                    .forEach(field -> onField.accept(field.getKey(), field.getValue()));
+            return CompletableFuture.completedFuture(cached.get());
         }
-    }
 
-    private String extractTextFromDOCX(InputStream inputStream) throws IOException {
-        try (XWPFDocument document = new XWPFDocument(inputStream)) {
-            StringBuilder text = new StringBuilder();
-            for (XWPFParagraph paragraph : document.getParagraphs()) {
-                text.append(paragraph.getText()).append("\n");
+        //Step 2: stream the completion through an incremental parser that emits each field once it is closed
+        int[] formatScore = {DEFAULT_SCORE};
+        IncrementalJsonObjectParser parser = new IncrementalJsonObjectParser(objectMapper, (field, value) -> {
+            if ("keywordSuggestions".equals(field)) {
+                value = objectMapper.valueToTree(scoringEngine.dropPresentKeywords(textValues(value), resumeText));
             }
-            return text.toString();
-        }
+            onField.accept(field, value);
+            // The overall score is not asked from the model, it follows once both scores are known
+            if ("formatScore".equals(field)) {
+                formatScore[0] = score(value);
+            } else if ("contentScore".equals(field)) {
+                onField.accept("overallScore", objectMapper.valueToTree(ATSScoringEngine.overallScore(formatScore[0], score(value))));
+            }
+        });
+
+        //Step 3: build, cache and return the full response, falling back to the local score if the stream fails
+        return llmProvider.streamChatCompletion(buildPrompt(resumeText), parser::feed)
+                .thenApply(ignored -> {
+                    if (!parser.isComplete()) {
+                        throw new LlmUnavailableException("LLM stream ended before the analysis was complete");
+                    }
+                    ATSAnalysisResponse response = toResponse(parser.getResult(), resumeText);
+                    resultCache.put(cacheKey, response);
+                    return response;
+                })
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    log.warn("Using local ATS scoring as fallback for streamed analysis: {}", cause.getMessage());
+                    return fallbackAnalysis(resumeText, cause.getMessage(), "stream");
+                });
+    }
+
+    /**
+     * Instant local score, shown while the LLM analysis is still running.
+     */
+    public ATSAnalysisResponse provisionalScore(String resumeText) {
+        return scoringEngine.score(resumeText);
     }
 
 //    private ATSAnalysisResponse callAnthropicAPI(String resumeText) throws Exception {
@@ -186,18 +277,37 @@ public class ATSService {
 //        }
 //    }
 
-    private ATSAnalysisResponse callAnthropicAPI(String resumeText) throws Exception {
+    private ATSAnalysisResponse callAnthropicAPI(String resumeText) {
+        String content = llmProvider.chatCompletion(buildPrompt(resumeText));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return toResponse(objectMapper.readTree(content), resumeText);
+        } catch (Exception e) {
+            outcome = "failure";
+            log.error("Failed to parse LLM response: {}", content, e);
+            throw new LlmUnavailableException("LLM returned an analysis that could not be parsed", e);
+        } finally {
+            sample.stop(Timer.builder("ats.stage.parse")
+                    .description("Time spent parsing the model output into an analysis")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
 
-         String prompt = """
+    private String buildPrompt(String resumeText) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Field order matters for streaming: scores first, then issues, suggestions and keywords
+        String prompt = """
          Analyze this resume and return ONLY valid JSON (no markdown, no code blocks, just pure JSON):
        {
-         "overallScore": <number 0-100>,
          "formatScore": <number 0-100>,
          "contentScore": <number 0-100>,
-         "keywordSuggestions": ["keyword1", "keyword2", ...],
-         "repetitiveWords": {"word1": count1, "word2": count2, ...},
          "issues": ["issue1", "issue2", ...],
-          "suggestions": ["suggestion1", "suggestion2", ...]
+         "suggestions": ["suggestion1", "suggestion2", ...],
+         "keywordSuggestions": ["keyword1", "keyword2", ...],
+         "repetitiveWords": {"word1": count1, "word2": count2, ...}
        }
 
         Rules:
@@ -206,89 +316,63 @@ public class ATSService {
         3. Do NOT mark technical skills as repetitive if they appear across Skills, Projects, and Experience sections.
         4. Only flag repetition in descriptive bullet sentences, not in section headers or skill lists.
 
-      Resume text:
+      Resume text (grouped by section):
       %s
-      """.formatted(resumeText.length() > 8000 ? resumeText.substring(0, 8000) : resumeText);
-
-        String requestBody = objectMapper.writeValueAsString(Map.of(
-                "model", "llama-3.1-8b-instant",
-                "messages", List.of(Map.of(
-                        "role", "user",
-                        "content", prompt)),
-                "temperature", 0.2
-        ));
-
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(GROQ_API_URL))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + groqApiKey)
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        log.info("Groq API response status: {}", response.statusCode());
+      """.formatted(promptCompactor.compact(resumeText).text());
+
+        sample.stop(Timer.builder("ats.stage.prompt")
+                .description("Time spent compacting the resume and building the analysis prompt")
+                .register(meterRegistry));
+        DistributionSummary.builder("ats.prompt.length")
+                .description("Characters in the analysis prompt sent to the model")
+                .baseUnit("characters")
+                .register(meterRegistry)
+                .record(prompt.length());
+        return prompt;
+    }
 
-        if (response.statusCode() != 200) {
-            log.error("Groq API error: {}", response.body());
-            return getDefaultResponse();
-        }
+    private ATSAnalysisResponse toResponse(JsonNode analysisJson, String resumeText) {
+        Map<String, Integer> repetitiveWords = new HashMap<>();
+        analysisJson.path("repetitiveWords").fields()
+                .forEachRemaining(entry -> repetitiveWords.put(entry.getKey(), entry.getValue().asInt()));
 
-        // Groq response format
-        JsonNode responseJson = objectMapper.readTree(response.body());
-        String content = responseJson.path("choices").get(0).path("message").path("content").asText();
+        int formatScore = score(analysisJson.path("formatScore"));
+        int contentScore = score(analysisJson.path("contentScore"));
+        return ATSAnalysisResponse.builder()
+                .overallScore(ATSScoringEngine.overallScore(formatScore, contentScore))
+                .formatScore(formatScore)
+                .contentScore(contentScore)
+                // The model regularly suggests keywords the resume already contains
+                .keywordSuggestions(scoringEngine.dropPresentKeywords(textValues(analysisJson.path("keywordSuggestions")), resumeText))
+                .repetitiveWords(repetitiveWords)
+                .issues(textValues(analysisJson.path("issues")))
+                .suggestions(textValues(analysisJson.path("suggestions")))
+                .build();
+    }
 
-        content = content.trim();
+    private static int score(JsonNode value) {
+        return Math.max(0, Math.min(100, value.asInt(DEFAULT_SCORE)));
+    }
 
-        try {
-            JsonNode analysisJson = objectMapper.readTree(content);
-
-            List<String> keywordSuggestions = new ArrayList<>();
-            analysisJson.path("keywordSuggestions").forEach(node -> keywordSuggestions.add(node.asText()));
-
-            Map<String, Integer> repetitiveWords = new HashMap<>();
-            analysisJson.path("repetitiveWords").fields()
-                    .forEachRemaining(entry -> repetitiveWords.put(entry.getKey(), entry.getValue().asInt()));
-
-            List<String> issues = new ArrayList<>();
-            analysisJson.path("issues").forEach(node -> issues.add(node.asText()));
-
-            List<String> suggestions = new ArrayList<>();
-            analysisJson.path("suggestions").forEach(node -> suggestions.add(node.asText()));
-
-            return ATSAnalysisResponse.builder()
-                    .overallScore(analysisJson.path("overallScore").asInt(70))
-                    .formatScore(analysisJson.path("formatScore").asInt(70))
-                    .contentScore(analysisJson.path("contentScore").asInt(70))
-                    .keywordSuggestions(keywordSuggestions)
-                    .repetitiveWords(repetitiveWords)
-                    .issues(issues)
-                    .suggestions(suggestions)
-                    .build();
-        } catch (Exception e) {
-            log.error("Failed to parse Groq response: {}", content, e);
-            return getDefaultResponse();
-        }
+    private static List<String> textValues(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.asText()));
+        return values;
     }
 
+    private String cacheKey(String resumeText) {
+        return ATSResultCache.keyFor(resumeText, PROMPT_VERSION + "|" + llmProvider.getModel());
+    }
 
-    private ATSAnalysisResponse getDefaultResponse() {
-        return ATSAnalysisResponse.builder()
-                .overallScore(65)
-                .formatScore(70)
-                .contentScore(60)
-                .keywordSuggestions(List.of("leadership", "teamwork", "problem-solving", "communication", "analytical"))
-                .repetitiveWords(Map.of("responsible", 3, "worked", 4))
-                .issues(List.of(
-                        "Consider adding more quantifiable achievements",
-                        "Some sections may benefit from stronger action verbs",
-                        "Ensure contact information is complete"))
-                .suggestions(List.of(
-                        "Add measurable results to your experience bullet points",
-                        "Include relevant industry keywords",
-                        "Consider adding a professional summary section",
-                        "Ensure consistent formatting throughout the document"))
-                .build();
+    ATSAnalysisResponse fallbackAnalysis(String resumeText, String reason, String mode) {
+        Counter.builder("ats.analysis.fallback")
+                .description("Analyses answered with the local score because the model was unavailable")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .increment();
+        ATSAnalysisResponse response = scoringEngine.score(resumeText);
+        response.setFallbackUsed(true);
+        response.setFallbackReason(reason);
+        return response;
     }
 }
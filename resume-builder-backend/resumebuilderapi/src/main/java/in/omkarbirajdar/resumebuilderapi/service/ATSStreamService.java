@@ -0,0 +1,89 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streams an ATS analysis to the browser over SSE while the LLM is still writing it.
+ * <p>
+ * Events, in order: {@code status} (extracting), {@code provisional} (local score), {@code status} (scoring),
+ * one event per analysis field named after the field ({@code overallScore}, {@code issues}, ...), and finally
+ * {@code result} with the complete response, or {@code error}. No request thread is held: extraction runs on
+ * the ATS worker pool and the LLM stream is consumed by the HTTP client.
+ */
+@Service
+@Slf4j
+public class ATSStreamService {
+
+    private final ATSService atsService;
+    private final TaskExecutor atsTaskExecutor;
+
+    @Value("${ats.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    public ATSStreamService(ATSService atsService, @Qualifier("atsTaskExecutor") TaskExecutor atsTaskExecutor) {
+        this.atsService = atsService;
+        this.atsTaskExecutor = atsTaskExecutor;
+    }
+
+    /**
+     * Starts a streamed analysis. The admission permit is released once the stream has finished.
+     */
+    public SseEmitter stream(byte[] content, String fileName, ATSAdmissionControl.Permit permit) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            atsTaskExecutor.execute(() -> run(emitter, content, fileName, permit));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("ATS analysis queue is full, please try again shortly");
+        }
+        return emitter;
+    }
+
+    private void run(SseEmitter emitter, byte[] content, String fileName, ATSAdmissionControl.Permit permit) {
+        try {
+            //Step 1: extract the text and send the instant local score
+            send(emitter, "status", Map.of("status", ATSJobService.STATUS_EXTRACTING));
+            String resumeText = atsService.extractText(content, fileName);
+            send(emitter, "provisional", atsService.provisionalScore(resumeText));
+
+            //Step 2: forward each analysis field as it completes, this worker is released once the stream starts
+            send(emitter, "status", Map.of("status", ATSJobService.STATUS_SCORING));
+            atsService.streamAnalysis(resumeText, (field, value) -> send(emitter, field, value))
+                    .whenComplete((result, error) -> {
+                        //Step 3: close the stream with the full result
+                        permit.release();
+                        if (error != null) {
+                            fail(emitter, error);
+                        } else {
+                            send(emitter, "result", result);
+                            emitter.complete();
+                        }
+                    });
+        } catch (Exception e) {
+            permit.release();
+            fail(emitter, e);
+        }
+    }
+
+    private void fail(SseEmitter emitter, Throwable error) {
+        log.error("Streamed ATS analysis failed", error);
+        send(emitter, "error", Map.of("error", "Failed to analyze resume: " + error.getMessage()));
+        emitter.complete();
+    }
+
+    private void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, the analysis still finishes and lands in the cache
+            log.debug("Dropping ATS stream event {}: {}", name, e.toString());
+        }
+    }
+}
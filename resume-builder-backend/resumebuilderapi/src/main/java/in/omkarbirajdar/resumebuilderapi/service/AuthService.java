@@ -10,6 +10,13 @@ import in.omkarbirajdar.resumebuilderapi.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -26,10 +33,23 @@ public class AuthService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final MongoTemplate mongoTemplate;
 
     @Value("${app.base.url:http://localhost:8080}")
     private String appBaseUrl;
 
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(User.class).createIndex(new Index().on("email", Sort.Direction.ASC).unique());
+            // Only unverified accounts carry a token
+            mongoTemplate.indexOps(User.class).createIndex(new Index().on("verificationToken", Sort.Direction.ASC).sparse());
+        } catch (Exception e) {
+            log.warn("Could not create indexes on users: {}", e.getMessage());
+        }
+    }
+
     public AuthResponse register(RegisterRequest request) {
         log.info("Inside AuthService: register() {} ", request);
 
@@ -7,10 +7,16 @@ import in.omkarbirajdar.resumebuilderapi.dto.AuthResponse;
 import in.omkarbirajdar.resumebuilderapi.repository.ResumeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -23,6 +29,8 @@ public class FileUploadService {
     private final Cloudinary cloudinary;
     private final AuthService authService;
     private final ResumeRepository resumeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ResumeRevisionService resumeRevisionService;
 
     public Map<String, String> uploadSingleImage(MultipartFile file) throws IOException {
         Map<String, Object> imageUploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap("resource_type", "image"));
@@ -44,24 +52,35 @@ public class FileUploadService {
         //Step 3: upload the resume images and set the resume
         Map<String, String> returnValue = new HashMap<>();
         Map<String, String> uploadResult;
+        Update update = new Update();
 
         if (Objects.nonNull(thumbnail)) {
             uploadResult = uploadSingleImage(thumbnail);
-            existingResume.setThumbnailLink(uploadResult.get("imageUrl"));
+            update.set("thumbnailLink", uploadResult.get("imageUrl"));
             returnValue.put("thumbnailLink", uploadResult.get("imageUrl"));
         }
 
         if (Objects.nonNull(profileImage)) {
             uploadResult = uploadSingleImage(profileImage);
             if (Objects.isNull(existingResume.getProfileInfo())) {
-                existingResume.setProfileInfo(new Resume.ProfileInfo());
+                Resume.ProfileInfo profileInfo = new Resume.ProfileInfo();
+                profileInfo.setProfilePreviewUrl(uploadResult.get("imageUrl"));
+                update.set("profileInfo", profileInfo);
+            } else {
+                update.set("profileInfo.profilePreviewUrl", uploadResult.get("imageUrl"));
             }
-            existingResume.getProfileInfo().setProfilePreviewUrl(uploadResult.get("imageUrl"));
             returnValue.put("profilePreviewUrl", uploadResult.get("imageUrl"));
         }
 
-        //Step 4: update the details into database
-        resumeRepository.save(existingResume);
+        //Step 4: update only the image links, edits saved during the upload are kept and the version moves on
+        Resume updatedResume = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(resumeId).and("userId").is(response.getId())),
+                update.set("updatedAt", LocalDateTime.now()).inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), Resume.class);
+        if (updatedResume != null) {
+            // The content as written
+            resumeRevisionService.record(resumeId, updatedResume.getUserId(), updatedResume.getVersion(), updatedResume);
+        }
         returnValue.put("message", "Images uploaded successfully");
 
         //Step 5: return the result
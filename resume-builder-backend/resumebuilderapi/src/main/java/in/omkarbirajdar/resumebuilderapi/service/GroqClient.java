@@ -0,0 +1,392 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import in.omkarbirajdar.resumebuilderapi.util.CircuitBreaker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Groq chat completions client with per-attempt timeouts, jittered exponential backoff on 429/5xx
+ * (honouring Retry-After) and a circuit breaker that fails fast while Groq is degraded.
+ */
+@Service
+@ConditionalOnProperty(name = "llm.provider", havingValue = "groq", matchIfMissing = true)
+@Slf4j
+public class GroqClient implements LlmProvider {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary completionTokens;
+
+    private final String apiKey;
+    private final URI apiUrl;
+    private final String model;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public GroqClient(HttpClient llmHttpClient,
+                      MeterRegistry meterRegistry,
+                      @Value("${groq.api.key}") String apiKey,
+                      @Value("${groq.api.url:https://api.groq.com/openai/v1/chat/completions}") String apiUrl,
+                      @Value("${groq.api.model:llama-3.1-8b-instant}") String model,
+                      @Value("${groq.client.request-timeout:30s}") Duration requestTimeout,
+                      @Value("${groq.client.max-attempts:3}") int maxAttempts,
+                      @Value("${groq.client.initial-backoff:500ms}") Duration initialBackoff,
+                      @Value("${groq.client.max-backoff:5s}") Duration maxBackoff,
+                      @Value("${groq.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                      @Value("${groq.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this.httpClient = llmHttpClient;
+        this.apiKey = apiKey;
+        this.apiUrl = URI.create(apiUrl);
+        this.model = model;
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.meterRegistry = meterRegistry;
+        this.promptTokens = DistributionSummary.builder("ats.llm.tokens")
+                .description("Tokens billed per Groq completion, as reported by the API")
+                .tag("type", "prompt")
+                .register(meterRegistry);
+        this.completionTokens = DistributionSummary.builder("ats.llm.tokens")
+                .description("Tokens billed per Groq completion, as reported by the API")
+                .tag("type", "completion")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Sends a single-message chat completion and returns the assistant message content.
+     *
+     * @throws LlmUnavailableException when the circuit is open, retries are exhausted or the error is not retryable
+     */
+    @Override
+    public String chatCompletion(String prompt) {
+        CircuitBreaker.Permit permit = circuitBreaker.acquire();
+        if (permit == null) {
+            throw new LlmUnavailableException("Groq is temporarily unavailable (circuit open)");
+        }
+        try (permit) {
+            return send(buildRequest(prompt, false));
+        }
+    }
+
+    private String send(HttpRequest request) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                int status = response.statusCode();
+                recordRoundTrip("blocking", String.valueOf(status), start);
+                log.info("Groq API response status: {} (attempt {})", status, attempt);
+
+                if (status == 200) {
+                    circuitBreaker.recordSuccess();
+                    return extractContent(response.body());
+                }
+
+                if (!isRetryable(status)) {
+                    // Groq answered, so this is a request problem rather than an outage
+                    circuitBreaker.recordSuccess();
+                    log.error("Groq API error: {}", response.body());
+                    throw new LlmUnavailableException("Groq API returned status " + status);
+                }
+
+                Duration retryAfter = parseRetryAfter(response);
+                if (attempt >= maxAttempts || retryAfter.compareTo(maxBackoff) > 0) {
+                    circuitBreaker.recordFailure();
+                    throw new LlmUnavailableException("Groq API returned status " + status + " after " + attempt + " attempts");
+                }
+                sleep(backoff(attempt, retryAfter));
+
+            } catch (IOException e) {
+                recordRoundTrip("blocking", "io_error", start);
+                if (attempt >= maxAttempts) {
+                    circuitBreaker.recordFailure();
+                    throw new LlmUnavailableException("Groq API unreachable: " + e, e);
+                }
+                log.warn("Groq API call failed on attempt {}: {}", attempt, e.toString());
+                sleep(backoff(attempt, Duration.ZERO));
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                circuitBreaker.recordFailure();
+                throw new LlmUnavailableException("Interrupted while calling Groq API", e);
+            }
+        }
+    }
+
+    /**
+     * Requests a streamed chat completion and hands every content delta to {@code onContent} as it arrives.
+     * Nothing blocks: the body is consumed on the HTTP client's executor, and the returned future completes
+     * once the stream ends. Streams are not retried, since part of the answer may already have been consumed.
+     *
+     * @return a future that fails with {@link LlmUnavailableException} when Groq cannot be reached, answers
+     * with an error status, stalls beyond the request timeout or {@code onContent} throws
+     */
+    @Override
+    public CompletableFuture<Void> streamChatCompletion(String prompt, Consumer<String> onContent) {
+        CircuitBreaker.Permit permit = circuitBreaker.acquire();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new LlmUnavailableException("Groq is temporarily unavailable (circuit open)"));
+        }
+        try {
+            return stream(prompt, onContent, permit);
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> stream(String prompt, Consumer<String> onContent, CircuitBreaker.Permit permit) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        // The call is over once the stream has ended, however it ended
+        done.whenComplete((ignored, error) -> permit.close());
+        CompletionLineSubscriber lines = new CompletionLineSubscriber(onContent, done);
+
+        // The round trip of a stream ends with its last chunk, a 200 that breaks off midway is tagged separately
+        long start = System.nanoTime();
+        AtomicReference<String> roundTripStatus = new AtomicReference<>("io_error");
+        done.whenComplete((ignored, error) -> recordRoundTrip("stream",
+                error != null && "200".equals(roundTripStatus.get()) ? "stream_error" : roundTripStatus.get(), start));
+
+        httpClient.sendAsync(buildRequest(prompt, true), responseInfo -> {
+                    roundTripStatus.set(String.valueOf(responseInfo.statusCode()));
+                    return responseInfo.statusCode() == 200
+                            ? HttpResponse.BodySubscribers.fromLineSubscriber(lines)
+                            : HttpResponse.BodySubscribers.discarding();
+                })
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        failStream(done, new LlmUnavailableException("Groq API unreachable: " + cause, cause), true);
+                        return;
+                    }
+                    int status = response.statusCode();
+                    log.info("Groq API stream status: {}", status);
+                    if (status != 200) {
+                        failStream(done, new LlmUnavailableException("Groq API returned status " + status), isRetryable(status));
+                    }
+                });
+
+        // The request timeout only covers the response headers, a stalled body needs its own deadline
+        CompletableFuture.delayedExecutor(requestTimeout.toMillis() * 2, TimeUnit.MILLISECONDS).execute(() ->
+                failStream(done, new LlmUnavailableException("Groq stream did not finish within " + requestTimeout.multipliedBy(2).toSeconds() + "s"), true));
+
+        return done;
+    }
+
+    private void failStream(CompletableFuture<Void> done, LlmUnavailableException error, boolean countAsFailure) {
+        // Only the first outcome of a stream counts towards the circuit breaker
+        if (done.completeExceptionally(error)) {
+            if (countAsFailure) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+        }
+    }
+
+    private HttpRequest buildRequest(String prompt, boolean stream) {
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("model", model);
+            body.put("messages", List.of(Map.of(
+                    "role", "user",
+                    "content", prompt)));
+            body.put("temperature", 0.2);
+            if (stream) {
+                body.put("stream", true);
+            }
+            String requestBody = objectMapper.writeValueAsString(body);
+
+            return HttpRequest.newBuilder()
+                    .uri(apiUrl)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .build();
+        } catch (IOException e) {
+            throw new LlmUnavailableException("Failed to build Groq request", e);
+        }
+    }
+
+    private String extractContent(String body) {
+        try {
+            JsonNode responseJson = objectMapper.readTree(body);
+            recordUsage(responseJson.path("usage"));
+            return responseJson.path("choices").path(0).path("message").path("content").asText().trim();
+        } catch (IOException e) {
+            throw new LlmUnavailableException("Groq API returned an unreadable body", e);
+        }
+    }
+
+    private void recordUsage(JsonNode usage) {
+        if (usage.has("prompt_tokens")) {
+            promptTokens.record(usage.path("prompt_tokens").asDouble());
+            completionTokens.record(usage.path("completion_tokens").asDouble());
+        }
+    }
+
+    private void recordRoundTrip(String mode, String status, long startNanos) {
+        Timer.builder("ats.stage.llm")
+                .description("LLM round trip per attempt, until the whole answer has been received")
+                .tag("mode", mode)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private Duration backoff(int attempt, Duration retryAfter) {
+        // Full jitter: a random delay between zero and the exponential cap
+        long capMillis = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        long jittered = ThreadLocalRandom.current().nextLong(capMillis + 1);
+        return Duration.ofMillis(Math.max(jittered, retryAfter.toMillis()));
+    }
+
+    private Duration parseRetryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return Duration.ofSeconds(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException e) {
+                        try {
+                            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                            Duration until = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                            return until.isNegative() ? Duration.ZERO : until;
+                        } catch (Exception ignored) {
+                            return Duration.ZERO;
+                        }
+                    }
+                })
+                .orElse(Duration.ZERO);
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.recordFailure();
+            throw new LlmUnavailableException("Interrupted while backing off from Groq API", e);
+        }
+    }
+
+    /**
+     * Reads the server-sent event lines of a streamed completion ({@code data: {...}} chunks followed by
+     * {@code data: [DONE]}) and forwards the content deltas.
+     */
+    private class CompletionLineSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onContent;
+        private final CompletableFuture<Void> done;
+        private Flow.Subscription subscription;
+
+        private CompletionLineSubscriber(Consumer<String> onContent, CompletableFuture<Void> done) {
+            this.onContent = onContent;
+            this.done = done;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (done.isDone()) {
+                // Timed out or rejected, stop reading the rest of the body
+                subscription.cancel();
+                return;
+            }
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || data.equals("[DONE]")) {
+                return;
+            }
+
+            JsonNode chunk;
+            try {
+                chunk = objectMapper.readTree(data);
+            } catch (IOException e) {
+                log.warn("Skipping unreadable Groq stream chunk: {}", data);
+                return;
+            }
+            // Groq reports usage on the last chunk
+            recordUsage(chunk.path("x_groq").path("usage"));
+
+            String content = chunk.path("choices").path(0).path("delta").path("content").asText("");
+            if (content.isEmpty()) {
+                return;
+            }
+            try {
+                onContent.accept(content);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                // Groq answered fine, the content was the problem
+                failStream(done, new LlmUnavailableException("Groq stream could not be processed: " + e.getMessage(), e), false);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failStream(done, new LlmUnavailableException("Groq stream broke off: " + throwable, throwable), true);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done.complete(null)) {
+                circuitBreaker.recordSuccess();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.omkarbirajdar.resumebuilderapi.dto.JobMatchResponse;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import in.omkarbirajdar.resumebuilderapi.util.HashUtil;
+import in.omkarbirajdar.resumebuilderapi.util.KeywordTokenizer;
+import in.omkarbirajdar.resumebuilderapi.util.TermCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local resume-to-job-description matching with BM25.
+ * <p>
+ * The job description is the query and the resume the document. Term weights come from a corpus-level
+ * document-frequency table built from the job descriptions seen so far, so words every posting uses
+ * ("develop", "software") count for less than the ones that set a posting apart ("kafka", "terraform").
+ * The table lives in a primitive {@link TermCounter} and is halved once it outgrows its budget, which keeps
+ * it bounded and lets old postings fade out. Matching itself needs no I/O and runs well under a millisecond.
+ */
+@Service
+@Slf4j
+public class JobMatchService {
+
+    // Standard BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int MAX_MATCHED_KEYWORDS = 25;
+    private static final int MAX_MISSING_KEYWORDS = 15;
+
+    // A posting is counted into the corpus once, when it is long enough to be complete
+    private static final int MIN_CORPUS_TERMS = 30;
+    private static final int POSTING_KEY_PREFIX = 300;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LlmProvider llmProvider;
+
+    private final int maxCorpusTerms;
+    private final double averageResumeTerms;
+
+    // Guarded by this
+    private TermCounter documentFrequencies = new TermCounter(4096);
+    private int corpusSize;
+
+    // Postings already counted, so re-matching or typing into the same posting does not skew the frequencies
+    private final Cache<String, Boolean> seenDescriptions;
+
+    public JobMatchService(LlmProvider llmProvider,
+                           @Value("${ats.match.max-corpus-terms:200000}") int maxCorpusTerms,
+                           @Value("${ats.match.average-resume-terms:450}") double averageResumeTerms,
+                           @Value("${ats.match.max-tracked-descriptions:100000}") long maxTrackedDescriptions) {
+        this.llmProvider = llmProvider;
+        this.maxCorpusTerms = maxCorpusTerms;
+        this.averageResumeTerms = averageResumeTerms;
+        this.seenDescriptions = Caffeine.newBuilder()
+                .maximumSize(maxTrackedDescriptions)
+                .build();
+    }
+
+    public JobMatchResponse match(String resumeText, String jobDescription, boolean includeSuggestions) {
+        //Step 1: tokenize the job description, keeping the first spelling of each term for display
+        TermCounter jobTerms = new TermCounter(128);
+        Map<String, String> surfaceForms = new HashMap<>();
+        KeywordTokenizer.tokenize(jobDescription, (term, surface) -> {
+            jobTerms.increment(term);
+            surfaceForms.putIfAbsent(term, surface);
+        });
+        if (jobTerms.size() == 0) {
+            throw new RuntimeException("Job description has no keywords to match");
+        }
+
+        //Step 2: count the posting into the corpus and read the document frequencies of its terms
+        Map<String, Double> idf = inverseDocumentFrequencies(jobDescription, jobTerms);
+
+        //Step 3: score the resume against every job term
+        TermCounter resumeTerms = new TermCounter(512);
+        int[] resumeLength = {0};
+        KeywordTokenizer.tokenize(resumeText, (term, surface) -> {
+            resumeTerms.increment(term);
+            resumeLength[0]++;
+        });
+        double lengthNorm = K1 * (1 - B + B * resumeLength[0] / averageResumeTerms);
+
+        List<WeightedTerm> matched = new ArrayList<>();
+        List<WeightedTerm> missing = new ArrayList<>();
+        double[] totals = {0, 0};
+        jobTerms.forEach((term, queryCount) -> {
+            // Terms the posting repeats matter more, with diminishing returns
+            double weight = idf.get(term) * (1 + Math.log(queryCount));
+            int tf = resumeTerms.get(term);
+            totals[0] += weight * tf * (K1 + 1) / (tf + lengthNorm);
+            totals[1] += weight * (K1 + 1);
+            (tf > 0 ? matched : missing).add(new WeightedTerm(surfaceForms.get(term), weight));
+        });
+
+        //Step 4: scale against a resume that saturates every term, and rank keywords by weight
+        int matchScore = (int) Math.round(100 * totals[0] / totals[1]);
+        JobMatchResponse response = JobMatchResponse.builder()
+                .matchScore(Math.max(0, Math.min(100, matchScore)))
+                .matchedKeywords(topTerms(matched, MAX_MATCHED_KEYWORDS))
+                .keywordSuggestions(topTerms(missing, MAX_MISSING_KEYWORDS))
+                .build();
+
+        //Step 5: optionally ask the LLM for written advice, the scores never depend on it
+        if (includeSuggestions) {
+            addSuggestions(response, resumeText, jobDescription);
+        }
+        return response;
+    }
+
+    private Map<String, Double> inverseDocumentFrequencies(String jobDescription, TermCounter jobTerms) {
+        // Keyed by the start of the posting, edits further down while the user types are the same posting
+        String normalized = jobDescription.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+        boolean unseen = jobTerms.size() >= MIN_CORPUS_TERMS && seenDescriptions.asMap().putIfAbsent(
+                HashUtil.sha256(normalized.substring(0, Math.min(POSTING_KEY_PREFIX, normalized.length()))), Boolean.TRUE) == null;
+        Map<String, Double> idf = new HashMap<>(jobTerms.size() * 2);
+
+        synchronized (this) {
+            if (unseen) {
+                jobTerms.forEach((term, count) -> documentFrequencies.increment(term));
+                corpusSize++;
+                if (documentFrequencies.size() > maxCorpusTerms) {
+                    decayCorpus();
+                }
+            }
+            int n = corpusSize;
+            jobTerms.forEach((term, count) -> {
+                int df = documentFrequencies.get(term);
+                idf.put(term, Math.log(1 + (n - df + 0.5) / (df + 0.5)));
+            });
+        }
+        return idf;
+    }
+
+    /**
+     * Halves every frequency and drops the terms that reach zero. Must hold the lock.
+     */
+    private void decayCorpus() {
+        TermCounter decayed = new TermCounter(maxCorpusTerms / 2);
+        documentFrequencies.forEach((term, df) -> {
+            if (df / 2 > 0) {
+                decayed.add(term, df / 2);
+            }
+        });
+        log.info("Decayed job description corpus from {} to {} terms", documentFrequencies.size(), decayed.size());
+        documentFrequencies = decayed;
+        corpusSize = Math.max(1, corpusSize / 2);
+    }
+
+    private void addSuggestions(JobMatchResponse response, String resumeText, String jobDescription) {
+        String prompt = """
+                You are helping a candidate tailor their resume to a job posting.
+                Return ONLY a JSON array of 3 to 5 short, specific suggestions (no markdown, no code blocks).
+                Keywords from the posting the resume does not mention: %s
+
+                Job description:
+                %s
+
+                Resume:
+                %s
+                """.formatted(String.join(", ", response.getKeywordSuggestions()),
+                truncate(jobDescription, 4000), truncate(resumeText, 6000));
+        try {
+            JsonNode suggestions = objectMapper.readTree(llmProvider.chatCompletion(prompt));
+            List<String> values = new ArrayList<>();
+            suggestions.forEach(node -> values.add(node.asText()));
+            response.setSuggestions(values);
+        } catch (LlmUnavailableException e) {
+            response.setSuggestionsError(e.getMessage());
+        } catch (Exception e) {
+            log.warn("Could not parse job match suggestions: {}", e.getMessage());
+            response.setSuggestionsError("Suggestions could not be generated");
+        }
+    }
+
+    private static List<String> topTerms(List<WeightedTerm> terms, int limit) {
+        terms.sort((a, b) -> Double.compare(b.weight(), a.weight()));
+        List<String> result = new ArrayList<>(Math.min(limit, terms.size()));
+        for (int i = 0; i < Math.min(limit, terms.size()); i++) {
+            result.add(terms.get(i).surface());
+        }
+        return result;
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    private record WeightedTerm(String surface, double weight) {
+    }
+}
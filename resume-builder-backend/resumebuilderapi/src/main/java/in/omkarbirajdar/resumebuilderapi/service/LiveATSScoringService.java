@@ -0,0 +1,73 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections.Section;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeTextSerializer;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeTextSerializer.Fragment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local ATS scores for the editor, recomputed on every autosave without calling the LLM.
+ * <p>
+ * The resume is split into fragments (the contact header, the summary, each experience, project and
+ * education entry, each list section) and the features of every fragment are cached by its content; the
+ * fragment record itself is the key, so lookups hash the text and confirm hits with an equality check. An edit therefore only re-extracts the fragments that changed; everything else is a cache hit,
+ * and the scores are re-aggregated from the cached features.
+ */
+@Service
+public class LiveATSScoringService {
+
+    private final ATSScoringEngine scoringEngine;
+    private final Cache<Fragment, ATSScoringEngine.SectionFeatures> featureCache;
+    private final Timer scoreTimer;
+
+    public LiveATSScoringService(ATSScoringEngine scoringEngine,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${ats.live.max-cached-sections:50000}") long maxCachedSections,
+                                 @Value("${ats.live.section-ttl:30m}") Duration sectionTtl) {
+        this.scoringEngine = scoringEngine;
+        this.featureCache = Caffeine.newBuilder()
+                .maximumSize(maxCachedSections)
+                .expireAfterAccess(sectionTtl)
+                .recordStats()
+                .build();
+        this.scoreTimer = Timer.builder("ats.live.score")
+                .description("Time to rescore a resume from the editor")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, featureCache, "atsLiveSections");
+    }
+
+    public ATSAnalysisResponse score(Resume resume) {
+        return scoreTimer.record(() -> {
+            //Step 1: split the resume into independently scored fragments
+            List<Fragment> fragments = ResumeTextSerializer.fragments(resume);
+
+            //Step 2: reuse features of unchanged fragments, extract the rest
+            List<ATSScoringEngine.SectionFeatures> features = new ArrayList<>(fragments.size());
+            String contactText = "";
+            for (Fragment fragment : fragments) {
+                if (fragment.section() == Section.CONTACT) {
+                    contactText = fragment.text();
+                }
+                features.add(featureCache.get(fragment, f -> scoringEngine.extractFeatures(f.section(), f.text())));
+            }
+
+            //Step 3: aggregate, the full text is only needed for the keyword suggestions
+            return scoringEngine.aggregate(features, scoringEngine.contactFeatures(contactText),
+                    ResumeTextSerializer.serialize(fragments));
+        });
+    }
+}
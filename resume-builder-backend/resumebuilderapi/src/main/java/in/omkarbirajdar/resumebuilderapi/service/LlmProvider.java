@@ -0,0 +1,33 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Chat completion backend used by the ATS, job match and import services. {@link GroqClient} talks to Groq,
+ * {@link StubLlmProvider} answers locally for load tests and offline development; {@code llm.provider}
+ * selects one.
+ */
+public interface LlmProvider {
+
+    /**
+     * Model name, part of every cache key so answers of different models are never mixed.
+     */
+    String getModel();
+
+    /**
+     * Sends a single-message chat completion and returns the assistant message content.
+     *
+     * @throws LlmUnavailableException when no answer could be obtained
+     */
+    String chatCompletion(String prompt);
+
+    /**
+     * Streams a chat completion, handing every content delta to {@code onContent} as it arrives.
+     *
+     * @return a future that completes once the stream ends, or fails with {@link LlmUnavailableException}
+     */
+    CompletableFuture<Void> streamChatCompletion(String prompt, Consumer<String> onContent);
+}
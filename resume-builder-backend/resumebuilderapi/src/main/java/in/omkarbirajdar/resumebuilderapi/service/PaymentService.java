@@ -13,6 +13,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +35,7 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final AuthService authService;
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Value("${razorpay.key.id}")
     private String razorpayKeyId;
@@ -36,6 +43,22 @@ public class PaymentService {
     private String razorpayKeySecret;
 
 
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(Payment.class).createIndex(new Index().on("razorpayOrderId", Sort.Direction.ASC).unique());
+            // Set once the payment is captured
+            mongoTemplate.indexOps(Payment.class).createIndex(new Index().on("razorpayPaymentId", Sort.Direction.ASC).sparse());
+            mongoTemplate.indexOps(Payment.class).createIndex(new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC));
+            mongoTemplate.indexOps(Payment.class).createIndex(new Index().on("status", Sort.Direction.ASC));
+        } catch (Exception e) {
+            log.warn("Could not create indexes on payments: {}", e.getMessage());
+        }
+    }
+
     public Payment createOrder(Object principal, String planType) throws RazorpayException {
         //Initial step
         AuthResponse authResponse = authService.getProfile(principal);
@@ -0,0 +1,174 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections.Section;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Shrinks extracted resume text before it goes into the LLM prompt. Whitespace is normalized, page numbers
+ * and headers or footers repeated at the top or bottom of pages are dropped, and the token budget is shared
+ * between sections so a long experience section can no longer push Skills and Projects out of the prompt.
+ */
+@Service
+@Slf4j
+public class PromptCompactor {
+
+    public record CompactedText(String text, int originalTokens, int compactedTokens) {
+    }
+
+    // Rough average for English text with the Llama tokenizer
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private static final Pattern PAGE_MARKER = Pattern.compile("(?i)^(page\\s*\\d+(\\s*(of|/)\\s*\\d+)?|\\d{1,2}(\\s*(of|/)\\s*\\d{1,2})?)$");
+    private static final Pattern BULLET = Pattern.compile("^[•▪●◦■□➢➤►*·-]+\\s*");
+    private static final Pattern SPACES = Pattern.compile("[ \\t\\u00A0]+");
+    // Lines at the top and at the bottom of a page that are compared with the other pages
+    private static final int PAGE_EDGE_LINES = 2;
+
+    private static final Map<Section, Integer> SECTION_WEIGHTS = new EnumMap<>(Section.class);
+
+    static {
+        SECTION_WEIGHTS.put(Section.CONTACT, 3);
+        SECTION_WEIGHTS.put(Section.SUMMARY, 8);
+        SECTION_WEIGHTS.put(Section.EXPERIENCE, 35);
+        SECTION_WEIGHTS.put(Section.EDUCATION, 8);
+        SECTION_WEIGHTS.put(Section.SKILLS, 14);
+        SECTION_WEIGHTS.put(Section.PROJECTS, 18);
+        SECTION_WEIGHTS.put(Section.CERTIFICATIONS, 5);
+        SECTION_WEIGHTS.put(Section.LANGUAGES, 2);
+        SECTION_WEIGHTS.put(Section.INTERESTS, 2);
+        SECTION_WEIGHTS.put(Section.OTHER, 5);
+    }
+
+    private final int maxTokens;
+    private final DistributionSummary tokensBefore;
+    private final DistributionSummary tokensAfter;
+
+    public PromptCompactor(MeterRegistry meterRegistry,
+                           @Value("${ats.prompt.max-resume-tokens:1500}") int maxTokens) {
+        this.maxTokens = maxTokens;
+        this.tokensBefore = DistributionSummary.builder("ats.prompt.resume.tokens")
+                .description("Estimated tokens of resume text before and after prompt compaction")
+                .tag("stage", "extracted")
+                .register(meterRegistry);
+        this.tokensAfter = DistributionSummary.builder("ats.prompt.resume.tokens")
+                .description("Estimated tokens of resume text before and after prompt compaction")
+                .tag("stage", "compacted")
+                .register(meterRegistry);
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public CompactedText compact(String resumeText) {
+        //Step 1: normalize whitespace and bullets, drop page numbers, headers and footers
+        String normalized = normalize(resumeText);
+
+        //Step 2: group the remaining lines by section, keeping document order
+        Map<Section, StringBuilder> sections = new LinkedHashMap<>();
+        for (ResumeSections.Block block : ResumeSections.split(normalized)) {
+            sections.computeIfAbsent(block.section(), s -> new StringBuilder()).append(block.text());
+        }
+
+        //Step 3: share the budget between sections and trim each one to its allotment
+        Map<Section, Integer> allotments = allocate(sections);
+        StringBuilder compacted = new StringBuilder(Math.min(normalized.length(), maxTokens * CHARS_PER_TOKEN + 256));
+        sections.forEach((section, text) -> {
+            String body = trimToChars(text.toString().strip(), allotments.get(section) * CHARS_PER_TOKEN);
+            if (!body.isEmpty()) {
+                compacted.append('[').append(section.name()).append("]\n").append(body).append('\n');
+            }
+        });
+
+        CompactedText result = new CompactedText(compacted.toString(), estimateTokens(resumeText), estimateTokens(compacted));
+        tokensBefore.record(result.originalTokens());
+        tokensAfter.record(result.compactedTokens());
+        log.info("Compacted resume text from ~{} to ~{} tokens", result.originalTokens(), result.compactedTokens());
+        return result;
+    }
+
+    private String normalize(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        Set<String> earlierEdges = new HashSet<>();
+        for (String page : text.split(ResumeTextExtractor.PAGE_BREAK)) {
+            List<String> lines = new ArrayList<>();
+            for (String rawLine : page.split("\\R")) {
+                String line = SPACES.matcher(rawLine).replaceAll(" ").strip();
+                if (!line.isEmpty()) {
+                    lines.add(BULLET.matcher(line).replaceFirst("- "));
+                }
+            }
+
+            // A number is only a page number on a line of its own at the top or bottom of the page
+            while (!lines.isEmpty() && PAGE_MARKER.matcher(lines.get(0)).matches()) {
+                lines.remove(0);
+            }
+            while (!lines.isEmpty() && PAGE_MARKER.matcher(lines.get(lines.size() - 1)).matches()) {
+                lines.remove(lines.size() - 1);
+            }
+
+            // Headers and footers repeat at the same edge of every page; keep the first page's copy only
+            Set<String> edges = new HashSet<>();
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (i < PAGE_EDGE_LINES || i >= lines.size() - PAGE_EDGE_LINES) {
+                    String key = line.toLowerCase(Locale.ROOT);
+                    if (line.length() > 2 && ResumeSections.headingSection(line) == null && earlierEdges.contains(key)) {
+                        continue;
+                    }
+                    edges.add(key);
+                }
+                out.append(line).append('\n');
+            }
+            earlierEdges.addAll(edges);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Water-filling allocation: sections smaller than their weighted share keep their full size and the
+     * remainder is redistributed over the larger sections.
+     */
+    private Map<Section, Integer> allocate(Map<Section, StringBuilder> sections) {
+        List<Section> bySize = new ArrayList<>(sections.keySet());
+        bySize.sort(Comparator.comparingInt(section -> sections.get(section).length()));
+
+        int remainingTokens = maxTokens;
+        int remainingWeight = bySize.stream().mapToInt(SECTION_WEIGHTS::get).sum();
+        Map<Section, Integer> allotments = new EnumMap<>(Section.class);
+        for (Section section : bySize) {
+            int weight = SECTION_WEIGHTS.get(section);
+            int share = remainingWeight == 0 ? 0 : remainingTokens * weight / remainingWeight;
+            int allotment = Math.min(estimateTokens(sections.get(section)), share);
+            allotments.put(section, allotment);
+            remainingTokens -= allotment;
+            remainingWeight -= weight;
+        }
+        return allotments;
+    }
+
+    private static String trimToChars(String text, int maxChars) {
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        // Cut at a line break so the model never sees half a bullet point
+        int cut = text.lastIndexOf('\n', maxChars);
+        return cut > 0 ? text.substring(0, cut) : text.substring(0, maxChars);
+    }
+}
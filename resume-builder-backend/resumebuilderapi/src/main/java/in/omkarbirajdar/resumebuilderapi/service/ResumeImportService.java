@@ -0,0 +1,99 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeImportParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Turns an uploaded PDF/DOCX resume into a stored {@link Resume}.
+ * <p>
+ * Text comes from the same extraction path as the ATS analysis and is split into fields by the local
+ * {@link ResumeImportParser}, so an import works without the model. When asked, the model gets the parsed
+ * fields together with the text to correct them, and any failure there keeps the parsed fields.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumeImportService {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final ATSService atsService;
+    private final ResumeService resumeService;
+    private final AuthService authService;
+    private final LlmProvider llmProvider;
+    private final ATSAdmissionControl admissionControl;
+    private final MeterRegistry meterRegistry;
+
+    public Resume importResume(MultipartFile file, String title, boolean refine, Object principal) throws Exception {
+        //Step 1: extract the text, identical uploads share the extraction with the ATS analysis
+        String text = atsService.extractText(atsService.readUpload(file), file.getOriginalFilename());
+
+        //Step 2: split it into resume fields locally
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Resume parsed = ResumeImportParser.parse(text);
+        sample.stop(Timer.builder("resume.import.parse")
+                .description("Time spent parsing extracted resume text into resume fields")
+                .register(meterRegistry));
+
+        //Step 3: optionally let the model correct the parsed fields
+        if (refine) {
+            String userId = authService.getProfile(principal).getId();
+            ATSAdmissionControl.Permit permit = admissionControl.admit(userId);
+            try {
+                parsed = refine(parsed, text);
+            } finally {
+                permit.release();
+            }
+        }
+
+        //Step 4: store it as a new resume of the caller
+        return resumeService.importResume(parsed, title, principal);
+    }
+
+    private Resume refine(Resume parsed, String text) {
+        try {
+            String prompt = """
+         A resume was parsed into the JSON below by a rule-based parser. Correct it against the resume text
+         and return ONLY valid JSON (no markdown, no code blocks, just pure JSON) in exactly the same shape.
+
+        Rules:
+        1. Only use information that appears in the resume text, never invent content.
+        2. Dates are "YYYY-MM", an ongoing role or degree has an empty endDate.
+        3. Keep fields the parser filled correctly unchanged.
+
+      Parsed JSON:
+      %s
+
+      Resume text:
+      %s
+      """.formatted(objectMapper.writeValueAsString(parsed), text);
+
+            Resume refined = objectMapper.readValue(llmProvider.chatCompletion(prompt), Resume.class);
+            parsed.setProfileInfo(refined.getProfileInfo() != null ? refined.getProfileInfo() : parsed.getProfileInfo());
+            parsed.setContactInfo(refined.getContactInfo() != null ? refined.getContactInfo() : parsed.getContactInfo());
+            parsed.setWorkExperience(refined.getWorkExperience() != null ? refined.getWorkExperience() : parsed.getWorkExperience());
+            parsed.setEducation(refined.getEducation() != null ? refined.getEducation() : parsed.getEducation());
+            parsed.setSkills(refined.getSkills() != null ? refined.getSkills() : parsed.getSkills());
+            parsed.setProjects(refined.getProjects() != null ? refined.getProjects() : parsed.getProjects());
+            parsed.setCertifications(refined.getCertifications() != null ? refined.getCertifications() : parsed.getCertifications());
+            parsed.setLanguages(refined.getLanguages() != null ? refined.getLanguages() : parsed.getLanguages());
+            parsed.setInterests(refined.getInterests() != null ? refined.getInterests() : parsed.getInterests());
+            return parsed;
+        } catch (LlmUnavailableException e) {
+            log.warn("Keeping rule-based import, refinement unavailable: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Keeping rule-based import, refinement could not be parsed: {}", e.getMessage());
+        }
+        return parsed;
+    }
+}
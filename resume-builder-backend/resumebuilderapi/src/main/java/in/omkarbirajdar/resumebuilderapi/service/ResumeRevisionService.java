@@ -0,0 +1,483 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.document.ResumeRevision;
+import in.omkarbirajdar.resumebuilderapi.dto.AuthResponse;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumeRevisionEntry;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumeRevisionPage;
+import in.omkarbirajdar.resumebuilderapi.util.JsonDelta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revision log of every resume, for viewing and restoring earlier versions.
+ * <p>
+ * A revision stores the JSON Patch from the revision before it, and every
+ * {@code resume.revisions.snapshot-interval} revisions (or when the patch would be larger than half the
+ * resume) a full snapshot instead, so any version is rebuilt from one snapshot and a bounded number of
+ * patches. Saves only hand the new content over: diffing and writing happen on a single background thread,
+ * which keeps each resume's revisions in order and keeps the last recorded content of active resumes in
+ * memory to diff against. Revisions older than {@code resume.revisions.keep-all} are compacted on the same
+ * thread to the last one of each day, at most {@code resume.revisions.max-compacted} per resume.
+ */
+@Service
+@Slf4j
+public class ResumeRevisionService {
+
+    // Saved with every write, diffing them would only add noise to each revision
+    private static final Set<String> METADATA_FIELDS = Set.of("_id", "userId", "version", "createdAt", "updatedAt");
+    private static final int COMPACTION_BATCH = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuthService authService;
+    private final int snapshotInterval;
+    private final Duration keepAll;
+    private final int maxCompacted;
+
+    private final ThreadPoolExecutor executor;
+    // Last recorded revision of recently saved resumes, only touched on the executor thread
+    private final Cache<String, Head> heads;
+
+    private final Counter snapshots;
+    private final Counter deltas;
+    private final Counter dropped;
+    private final DistributionSummary revisionSize;
+
+    public ResumeRevisionService(MongoTemplate mongoTemplate,
+                                 ObjectMapper objectMapper,
+                                 AuthService authService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${resume.revisions.snapshot-interval:20}") int snapshotInterval,
+                                 @Value("${resume.revisions.keep-all:24h}") Duration keepAll,
+                                 @Value("${resume.revisions.max-compacted:100}") int maxCompacted,
+                                 @Value("${resume.revisions.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${resume.revisions.cached-heads:10000}") long cachedHeads) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.authService = authService;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.keepAll = keepAll;
+        this.maxCompacted = maxCompacted;
+
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> new Thread(runnable, "resume-revisions"));
+        this.heads = Caffeine.newBuilder()
+                .maximumSize(cachedHeads)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+
+        this.snapshots = recordedCounter(meterRegistry, "snapshot");
+        this.deltas = recordedCounter(meterRegistry, "delta");
+        this.dropped = Counter.builder("resume.revisions.dropped")
+                .description("Revisions not recorded because the revision queue was full")
+                .register(meterRegistry);
+        this.revisionSize = DistributionSummary.builder("resume.revisions.size")
+                .description("Stored size of recorded revisions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private record Head(long version, long snapshotVersion, int depth, JsonNode content) {
+    }
+
+    private record Encoded(Long baseVersion, long snapshotVersion, int depth, String content) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(ResumeRevision.class).createIndex(new Index()
+                    .on("resumeId", Sort.Direction.ASC)
+                    .on("version", Sort.Direction.DESC)
+                    .unique());
+            mongoTemplate.indexOps(ResumeRevision.class).createIndex(new Index()
+                    .on("compacted", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.ASC));
+        } catch (Exception e) {
+            log.warn("Could not create indexes on resume_revisions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records the editable content of a resume as saved at {@code version}, in the background. Writers call
+     * it in the order of their writes, while no other write of the resume can happen.
+     */
+    public void record(String resumeId, String userId, long version, Resume data) {
+        submit(() -> store(resumeId, userId, version, toContent(data)));
+    }
+
+    /**
+     * Deletes the revisions of a deleted resume, after the revisions still waiting to be recorded.
+     */
+    public void deleteRevisions(String resumeId) {
+        submit(() -> {
+            mongoTemplate.remove(new Query(Criteria.where("resumeId").is(resumeId)), ResumeRevision.class);
+            heads.invalidate(resumeId);
+        });
+    }
+
+    /**
+     * One page of a resume's revisions, newest first, continuing after {@code cursor} when given.
+     *
+     * @throws IllegalArgumentException when the cursor was not made by this method
+     */
+    public ResumeRevisionPage getRevisions(String resumeId, Object principal, String cursor, int limit) {
+        //Step 1: Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        //Step 2: continue below the last version of the previous page
+        Criteria criteria = Criteria.where("resumeId").is(resumeId).and("userId").is(response.getId());
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.and("version").lt(decodeCursor(cursor));
+        }
+
+        //Step 3: read only the versions, one more than the page to know whether another page follows
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "version"))
+                .limit(pageSize + 1);
+        query.fields().include("version", "createdAt");
+        List<ResumeRevisionEntry> items = mongoTemplate.find(query, ResumeRevision.class).stream()
+                .map(revision -> ResumeRevisionEntry.builder()
+                        .version(revision.getVersion())
+                        .savedAt(revision.getCreatedAt())
+                        .build())
+                .toList();
+
+        //Step 4: return result
+        boolean more = items.size() > pageSize;
+        List<ResumeRevisionEntry> page = more ? items.subList(0, pageSize) : items;
+        return ResumeRevisionPage.builder()
+                .items(page)
+                .nextCursor(more ? encodeCursor(page.get(pageSize - 1).getVersion()) : null)
+                .build();
+    }
+
+    private static String encodeCursor(long version) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException included
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * A resume as it was saved at {@code version}.
+     */
+    public Resume getRevision(String resumeId, long version, Object principal) {
+        //Step 1: Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        //Step 2: find the revision of this user
+        ResumeRevision revision = mongoTemplate.findOne(new Query(Criteria.where("resumeId").is(resumeId)
+                .and("userId").is(response.getId())
+                .and("version").is(version)), ResumeRevision.class);
+        if (revision == null) {
+            throw new RuntimeException("Revision not found");
+        }
+
+        //Step 3: rebuild it from its snapshot
+        try {
+            Resume resume = objectMapper.treeToValue(rebuild(revision), Resume.class);
+            resume.setId(resumeId);
+            resume.setUserId(revision.getUserId());
+            resume.setVersion(revision.getVersion());
+            resume.setUpdatedAt(revision.getCreatedAt());
+            return resume;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Revision could not be read", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${resume.revisions.compaction-interval-ms:3600000}")
+    public void compactOldRevisions() {
+        submit(() -> {
+            LocalDateTime cutoff = LocalDateTime.now().minus(keepAll);
+            List<String> resumeIds = mongoTemplate.findDistinct(
+                    new Query(Criteria.where("compacted").is(false).and("createdAt").lt(cutoff)),
+                    "resumeId", ResumeRevision.class, String.class);
+            for (String resumeId : resumeIds.subList(0, Math.min(resumeIds.size(), COMPACTION_BATCH))) {
+                try {
+                    compact(resumeId, cutoff);
+                } catch (Exception e) {
+                    log.warn("Could not compact revisions of resume {}: {}", resumeId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Revisions handed over by the last autosave flush are still written
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Dropping {} resume revisions on shutdown", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.warn("Resume revision task failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Resume revision queue is full, revision not recorded");
+        }
+    }
+
+    private void store(String resumeId, String userId, long version, JsonNode content) {
+        //Step 1: find the revision to diff against
+        Head head = heads.getIfPresent(resumeId);
+        if (head == null) {
+            ResumeRevision latest = mongoTemplate.findOne(new Query(Criteria.where("resumeId").is(resumeId))
+                    .with(Sort.by(Sort.Direction.DESC, "version")), ResumeRevision.class);
+            head = latest == null ? null : toHead(latest, rebuild(latest));
+        }
+        if (head != null && (head.version() == version || head.version() < version && head.content().equals(content))) {
+            // Recorded already, or saved without a change
+            return;
+        }
+
+        //Step 2: store a patch against it, or a snapshot. A version older than the head cannot be a patch on it,
+        // it is kept as a snapshot of its own and the head stays
+        boolean behind = head != null && head.version() > version;
+        Encoded encoded = behind ? encode(null, version, content) : encode(head, version, content);
+        try {
+            mongoTemplate.insert(ResumeRevision.builder()
+                    .resumeId(resumeId)
+                    .userId(userId)
+                    .version(version)
+                    .baseVersion(encoded.baseVersion())
+                    .snapshotVersion(encoded.snapshotVersion())
+                    .depth(encoded.depth())
+                    .content(encoded.content())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // Recorded by another instance
+            heads.invalidate(resumeId);
+            return;
+        }
+        (encoded.baseVersion() == null ? snapshots : deltas).increment();
+        revisionSize.record(encoded.content().length());
+        if (!behind) {
+            heads.put(resumeId, new Head(version, encoded.snapshotVersion(), encoded.depth(), content));
+        }
+    }
+
+    private Encoded encode(Head base, long version, JsonNode content) {
+        String snapshot = write(content);
+        if (base != null && base.depth() + 1 < snapshotInterval) {
+            String delta = write(JsonDelta.diff(base.content(), content));
+            if (delta.length() < snapshot.length() / 2) {
+                return new Encoded(base.version(), base.snapshotVersion(), base.depth() + 1, delta);
+            }
+        }
+        return new Encoded(null, version, 0, snapshot);
+    }
+
+    /**
+     * Content of a revision: its snapshot with the patches of its chain applied in order.
+     */
+    private JsonNode rebuild(ResumeRevision target) {
+        Map<Long, ResumeRevision> loaded = new HashMap<>();
+        Deque<ResumeRevision> chain = new ArrayDeque<>();
+        ResumeRevision current = target;
+        while (!current.isSnapshot()) {
+            chain.push(current);
+            ResumeRevision base = loaded.get(current.getBaseVersion());
+            if (base == null) {
+                // One read covers the whole chain, unless compaction re-based part of it meanwhile
+                loadChain(current.getResumeId(), current.getSnapshotVersion(), current.getBaseVersion(), loaded);
+                base = loaded.get(current.getBaseVersion());
+            }
+            if (base == null || base.getVersion() >= current.getVersion()) {
+                throw new IllegalStateException("Revision " + target.getVersion() + " of resume " + target.getResumeId() + " cannot be rebuilt");
+            }
+            current = base;
+        }
+
+        JsonNode content = read(current.getContent());
+        while (!chain.isEmpty()) {
+            content = JsonDelta.apply(content, (ArrayNode) read(chain.pop().getContent()));
+        }
+        return content;
+    }
+
+    private void loadChain(String resumeId, long fromVersion, long toVersion, Map<Long, ResumeRevision> loaded) {
+        Query query = new Query(Criteria.where("resumeId").is(resumeId).and("version").gte(fromVersion).lte(toVersion));
+        mongoTemplate.find(query, ResumeRevision.class).forEach(revision -> loaded.put(revision.getVersion(), revision));
+    }
+
+    /**
+     * Keeps every revision newer than the cutoff and the last revision of each older day, at most
+     * {@code maxCompacted} of those. Kept revisions whose base was dropped are re-encoded, in version order
+     * and before anything is deleted, so every revision can be rebuilt at any point of the compaction.
+     */
+    private void compact(String resumeId, LocalDateTime cutoff) {
+        //Step 1: rebuild every revision of the resume in version order
+        List<ResumeRevision> revisions = mongoTemplate.find(new Query(Criteria.where("resumeId").is(resumeId))
+                .with(Sort.by(Sort.Direction.ASC, "version")), ResumeRevision.class);
+        Map<Long, JsonNode> contents = new HashMap<>();
+        for (ResumeRevision revision : revisions) {
+            JsonNode content = revision.isSnapshot()
+                    ? read(revision.getContent())
+                    : JsonDelta.apply(contents.get(revision.getBaseVersion()), (ArrayNode) read(revision.getContent()));
+            contents.put(revision.getVersion(), content);
+        }
+
+        //Step 2: choose the revisions to keep
+        List<ResumeRevision> keptOld = new ArrayList<>();
+        List<ResumeRevision> kept = new ArrayList<>();
+        for (int i = 0; i < revisions.size(); i++) {
+            ResumeRevision revision = revisions.get(i);
+            if (!revision.getCreatedAt().isBefore(cutoff)) {
+                kept.add(revision);
+                continue;
+            }
+            ResumeRevision next = i + 1 < revisions.size() ? revisions.get(i + 1) : null;
+            LocalDate day = revision.getCreatedAt().toLocalDate();
+            if (next == null || !next.getCreatedAt().toLocalDate().equals(day)) {
+                keptOld.add(revision);
+            }
+        }
+        keptOld = keptOld.subList(Math.max(0, keptOld.size() - maxCompacted), keptOld.size());
+        kept.addAll(0, keptOld);
+
+        //Step 3: re-encode the kept revisions in version order, writing only those that changed
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ResumeRevision.class);
+        int changes = 0;
+        Head previous = null;
+        for (ResumeRevision revision : kept) {
+            JsonNode content = contents.get(revision.getVersion());
+            Encoded encoded = encode(previous, revision.getVersion(), content);
+            boolean compacted = revision.isCompacted() || revision.getCreatedAt().isBefore(cutoff);
+            boolean sameChain = Objects.equals(encoded.baseVersion(), revision.getBaseVersion())
+                    && encoded.snapshotVersion() == revision.getSnapshotVersion()
+                    && encoded.depth() == revision.getDepth();
+            if (!sameChain) {
+                bulk.updateOne(new Query(Criteria.where("_id").is(revision.getId())), new Update()
+                        .set("baseVersion", encoded.baseVersion())
+                        .set("snapshotVersion", encoded.snapshotVersion())
+                        .set("depth", encoded.depth())
+                        .set("content", encoded.content())
+                        .set("compacted", compacted));
+                changes++;
+            } else if (compacted != revision.isCompacted()) {
+                bulk.updateOne(new Query(Criteria.where("_id").is(revision.getId())), new Update().set("compacted", true));
+                changes++;
+            }
+            previous = sameChain
+                    ? new Head(revision.getVersion(), revision.getSnapshotVersion(), revision.getDepth(), content)
+                    : toHead(revision.getVersion(), encoded, content);
+        }
+        if (changes > 0) {
+            bulk.execute();
+        }
+
+        //Step 4: delete the dropped revisions
+        Set<String> keptIds = new HashSet<>();
+        kept.forEach(revision -> keptIds.add(revision.getId()));
+        List<String> droppedIds = revisions.stream().map(ResumeRevision::getId).filter(id -> !keptIds.contains(id)).toList();
+        if (!droppedIds.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(droppedIds)), ResumeRevision.class);
+        }
+        heads.invalidate(resumeId);
+        log.info("Compacted revisions of resume {}: kept {} of {}", resumeId, kept.size(), revisions.size());
+    }
+
+    private JsonNode toContent(Resume resume) {
+        ObjectNode content = objectMapper.valueToTree(resume);
+        content.remove(METADATA_FIELDS);
+        return content;
+    }
+
+    private static Head toHead(ResumeRevision revision, JsonNode content) {
+        return new Head(revision.getVersion(), revision.getSnapshotVersion(), revision.getDepth(), content);
+    }
+
+    private static Head toHead(long version, Encoded encoded, JsonNode content) {
+        return new Head(version, encoded.snapshotVersion(), encoded.depth(), content);
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize revision", e);
+        }
+    }
+
+    private JsonNode read(String content) {
+        try {
+            return objectMapper.readTree(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read revision", e);
+        }
+    }
+
+    private static Counter recordedCounter(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("resume.revisions.recorded")
+                .description("Resume revisions recorded, as full snapshots or as patches")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+}
@@ -1,17 +1,40 @@
 package in.omkarbirajdar.resumebuilderapi.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import in.omkarbirajdar.resumebuilderapi.document.Resume;
 import in.omkarbirajdar.resumebuilderapi.dto.AuthResponse;
 import in.omkarbirajdar.resumebuilderapi.dto.CreateResumeRequest;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumeSummary;
+import in.omkarbirajdar.resumebuilderapi.exception.PreconditionFailedException;
 import in.omkarbirajdar.resumebuilderapi.repository.ResumeRepository;
+import in.omkarbirajdar.resumebuilderapi.util.ResumePatch;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +43,12 @@ public class ResumeService {
 
     private final ResumeRepository resumeRepository;
     private final AuthService authService;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ResumeWriteBuffer resumeWriteBuffer;
+    private final ResumeRevisionService resumeRevisionService;
+
+    private static final int MAX_SUMMARY_PAGE_SIZE = 100;
 
     public Resume createResume(CreateResumeRequest request, Object principalObject) {
         //Step 1: Create resume object
@@ -35,8 +64,49 @@ public class ResumeService {
         //Step 4: Set default data for resume
         setDefaultResumeData(newResume);
 
-        //Step 5: save the resume data
-        return resumeRepository.save(newResume);
+        //Step 5: save the resume data, the first revision is recorded in the background
+        Resume savedResume = resumeRepository.save(newResume);
+        resumeRevisionService.record(savedResume.getId(), savedResume.getUserId(), savedResume.getVersion(), savedResume);
+        return savedResume;
+    }
+
+    public Resume importResume(Resume parsed, String title, Object principalObject) {
+        //Step 1: Get the current profile
+        AuthResponse response = authService.getProfile(principalObject);
+
+        //Step 2: Start from the default data and keep every section the import filled
+        Resume newResume = new Resume();
+        setDefaultResumeData(newResume);
+        newResume.setUserId(response.getId());
+        newResume.setTitle(title);
+        if (parsed.getProfileInfo() != null) newResume.setProfileInfo(parsed.getProfileInfo());
+        if (parsed.getContactInfo() != null) newResume.setContactInfo(parsed.getContactInfo());
+        if (parsed.getWorkExperience() != null) newResume.setWorkExperience(parsed.getWorkExperience());
+        if (parsed.getEducation() != null) newResume.setEducation(parsed.getEducation());
+        if (parsed.getSkills() != null) newResume.setSkills(parsed.getSkills());
+        if (parsed.getProjects() != null) newResume.setProjects(parsed.getProjects());
+        if (parsed.getCertifications() != null) newResume.setCertifications(parsed.getCertifications());
+        if (parsed.getLanguages() != null) newResume.setLanguages(parsed.getLanguages());
+        if (parsed.getInterests() != null) newResume.setInterests(parsed.getInterests());
+
+        //Step 3: save the resume data, the imported version is kept as the first revision
+        Resume savedResume = resumeRepository.save(newResume);
+        resumeRevisionService.record(savedResume.getId(), savedResume.getUserId(), savedResume.getVersion(), savedResume);
+        return savedResume;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes() {
+        try {
+            // Serves the resume list and the keyset pages of summaries, lookups by id use the _id index
+            mongoTemplate.indexOps(Resume.class).createIndex(new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .on("updatedAt", Sort.Direction.DESC)
+                    .on("_id", Sort.Direction.DESC));
+        } catch (Exception e) {
+            log.warn("Could not create indexes on resumes: {}", e.getMessage());
+        }
     }
 
     private void setDefaultResumeData(Resume newResume) {
@@ -49,6 +119,7 @@ public class ResumeService {
         newResume.setCertifications(new ArrayList<>());
         newResume.setLanguages(new ArrayList<>());
         newResume.setInterests(new ArrayList<>());
+        newResume.setVersion(0L);
     }
 
     public List<Resume> getUserResumes(Object principal) {
@@ -62,6 +133,100 @@ public class ResumeService {
         return resumes;
     }
 
+    /**
+     * One page of dashboard cards, newest first. Only the card fields are read from Mongo and each card is
+     * written to the response as it comes off the cursor. Pages continue from an opaque cursor on
+     * {@code (updatedAt, _id)}, so later pages cost the same as the first. Resumes without {@code updatedAt}
+     * sort after all others. The total is only counted for the first page.
+     *
+     * @throws IllegalArgumentException for a cursor this method did not issue
+     */
+    public StreamingResponseBody getResumeSummaries(Object principal, String cursor, int limit) {
+        //Step 1: Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        //Step 2: continue after the last card of the previous page
+        Criteria owner = Criteria.where("userId").is(response.getId());
+        Criteria criteria = owner;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            // Missing and null dates sort last in the descending order and never match $lt
+            criteria = position[0].isEmpty()
+                    ? new Criteria().andOperator(owner, Criteria.where("updatedAt").is(null).and("_id").lt(position[1]))
+                    : new Criteria().andOperator(owner, new Criteria().orOperator(
+                            Criteria.where("updatedAt").lt(LocalDateTime.parse(position[0])),
+                            Criteria.where("updatedAt").is(LocalDateTime.parse(position[0])).and("_id").lt(position[1]),
+                            Criteria.where("updatedAt").is(null)));
+        }
+
+        //Step 3: read only the card fields, one more than the page to know whether another page follows
+        int pageSize = Math.max(1, Math.min(limit, MAX_SUMMARY_PAGE_SIZE));
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt", "_id"))
+                .limit(pageSize + 1);
+        query.fields().include("title", "thumbnailLink", "template.theme", "updatedAt");
+        boolean firstPage = criteria == owner;
+
+        //Step 4: stream the page as {"items": [...], "nextCursor": ..., "total": ...}
+        return out -> {
+            try (Stream<Resume> resumes = mongoTemplate.stream(query, Resume.class);
+                 JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("items");
+                Resume last = null;
+                int written = 0;
+                boolean more = false;
+                for (Iterator<Resume> it = resumes.iterator(); it.hasNext(); ) {
+                    Resume resume = it.next();
+                    if (written == pageSize) {
+                        more = true;
+                        break;
+                    }
+                    json.writeObject(toSummary(resume));
+                    last = resume;
+                    written++;
+                }
+                json.writeEndArray();
+                json.writeStringField("nextCursor", more ? encodeCursor(last) : null);
+                if (firstPage) {
+                    json.writeNumberField("total", written < pageSize ? written : mongoTemplate.count(new Query(owner), Resume.class));
+                }
+                json.writeEndObject();
+            }
+        };
+    }
+
+    private static ResumeSummary toSummary(Resume resume) {
+        return ResumeSummary.builder()
+                .id(resume.getId())
+                .title(resume.getTitle())
+                .thumbnailLink(resume.getThumbnailLink())
+                .theme(resume.getTemplate() == null ? null : resume.getTemplate().getTheme())
+                .updatedAt(resume.getUpdatedAt())
+                .build();
+    }
+
+    private static String encodeCursor(Resume resume) {
+        // An empty date stands for a resume without updatedAt
+        String position = (resume.getUpdatedAt() == null ? "" : resume.getUpdatedAt().toString()) + "|" + resume.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (!position[0].isEmpty()) {
+                LocalDateTime.parse(position[0]);
+            }
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
     public Resume getResumeById(String resumeId, Object principal) {
         //Step 1: Get the current profile
         AuthResponse response = authService.getProfile(principal);
@@ -74,33 +239,140 @@ public class ResumeService {
         return existingResume;
     }
 
-    public Resume updateResume(String resumeId, Resume updatedData, Object principal) {
+    /**
+     * Current version of a resume without loading it, for conditional GETs.
+     */
+    public long getResumeVersion(String resumeId, Object principal) {
+        //Step 1: Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        //Step 2: read only the version
+        Long version = findVersion(resumeId, response.getId());
+        if (version == null) {
+            throw new RuntimeException("Resume not found");
+        }
+
+        //Step 3: return result
+        return version;
+    }
+
+    /**
+     * Replaces the editable fields. With {@code expectedVersions} the write only applies while the resume is
+     * still at one of them, checked by the update filter, otherwise it fails with {@link PreconditionFailedException}.
+     * Autosaves without a precondition go through the {@link ResumeWriteBuffer}, which writes them together with
+     * the other updates arriving at the same time.
+     */
+    public Resume updateResume(String resumeId, Resume updatedData, List<Long> expectedVersions, Object principal) {
         //Step 1: get the current profile
         AuthResponse response = authService.getProfile(principal);
 
-        //Step 2: call the repository finder method
-        Resume existingResume = resumeRepository.findByUserIdAndId(response.getId(), resumeId)
-                .orElseThrow(() -> new RuntimeException("Resume not found"));
+        //Step 2: write the update with the next flush of the buffer, it returns once the update is stored
+        Resume bufferedResume = resumeWriteBuffer.update(resumeId, response.getId(), updatedData, expectedVersions);
+        if (bufferedResume != null) {
+            return bufferedResume;
+        }
 
-        //Step 3: update the new data
-        existingResume.setTitle(updatedData.getTitle());
-        existingResume.setThumbnailLink(updatedData.getThumbnailLink());
-        existingResume.setTemplate(updatedData.getTemplate());
-        existingResume.setProfileInfo(updatedData.getProfileInfo());
-        existingResume.setContactInfo(updatedData.getContactInfo());
-        existingResume.setWorkExperience(updatedData.getWorkExperience());
-        existingResume.setEducation(updatedData.getEducation());
-        existingResume.setSkills(updatedData.getSkills());
-        existingResume.setProjects(updatedData.getProjects());
-        existingResume.setCertifications(updatedData.getCertifications());
-        existingResume.setLanguages(updatedData.getLanguages());
-        existingResume.setInterests(updatedData.getInterests());
-
-        //Step 4: update the details into database
-        resumeRepository.save(existingResume);
+        //Step 3: the update has a precondition or the buffer is full or disabled, set the new data and bump the version directly
+        Update update = ResumeWriteBuffer.replaceEditableFields(updatedData)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+
+        //Step 4: update the details into database, only if the resume is still at a version the client has seen,
+        // and record what was written
+        Resume updatedResume = recordWritten(mongoTemplate.findAndModify(
+                new Query(resumeCriteria(resumeId, response.getId(), expectedVersions)),
+                update, FindAndModifyOptions.options().returnNew(true), Resume.class));
+        if (updatedResume == null) {
+            throw notUpdated(resumeId, response.getId(), expectedVersions);
+        }
 
         //Step 5: return result
-        return existingResume;
+        return updatedResume;
+    }
+
+    /**
+     * Applies a partial update in one targeted write, without reading the resume first.
+     *
+     * @return the resume as written
+     */
+    public Resume patchResume(String resumeId, ResumePatch patch, List<Long> expectedVersions, Object principal) {
+        //Step 1: get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        //Step 2: match the resume of this user at an expected version, and every list element the patch writes into
+        Criteria criteria = resumeCriteria(resumeId, response.getId(), expectedVersions);
+        for (String element : patch.getRequiredElements()) {
+            criteria.and(element).exists(true);
+        }
+        Query query = new Query(criteria);
+
+        //Step 3: apply the patch, save() is bypassed so the modification time and version are set here,
+        // the patched resume is returned whole for the revision log
+        Resume patchedResume = recordWritten(mongoTemplate.findAndModify(query,
+                patch.getUpdate().set("updatedAt", LocalDateTime.now()).inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), Resume.class));
+        if (patchedResume == null) {
+            throw notUpdated(resumeId, response.getId(), expectedVersions);
+        }
+
+        //Step 4: return result
+        return patchedResume;
+    }
+
+    /**
+     * Saves the content of an earlier revision as the newest version, so the restore can itself be undone.
+     */
+    public Resume restoreRevision(String resumeId, long version, List<Long> expectedVersions, Object principal) {
+        //Step 1: rebuild the revision
+        Resume revision = resumeRevisionService.getRevision(resumeId, version, principal);
+
+        //Step 2: save its content like any other update
+        return updateResume(resumeId, revision, expectedVersions, principal);
+    }
+
+    private Criteria resumeCriteria(String resumeId, String userId, List<Long> expectedVersions) {
+        Criteria criteria = Criteria.where("_id").is(resumeId).and("userId").is(userId);
+        if (expectedVersions == null) {
+            return criteria;
+        }
+        // Resumes stored before versioning have no version field and count as version 0
+        return expectedVersions.contains(0L)
+                ? criteria.orOperator(Criteria.where("version").in(expectedVersions), Criteria.where("version").exists(false))
+                : criteria.and("version").in(expectedVersions);
+    }
+
+    /**
+     * Hands a resume returned by a direct write to the revision log, null when nothing was written.
+     */
+    private Resume recordWritten(Resume written) {
+        if (written != null) {
+            resumeRevisionService.record(written.getId(), written.getUserId(), written.getVersion(), written);
+        }
+        return written;
+    }
+
+    /**
+     * Explains a conditional write that matched nothing. Only runs on that failure path.
+     */
+    private RuntimeException notUpdated(String resumeId, String userId, List<Long> expectedVersions) {
+        Long version = findVersion(resumeId, userId);
+        if (version == null) {
+            return new RuntimeException("Resume not found");
+        }
+        if (expectedVersions != null && !expectedVersions.contains(version)) {
+            return new PreconditionFailedException("Resume has been modified, current version is " + version);
+        }
+        return new IllegalArgumentException("Patch addresses a list element that does not exist");
+    }
+
+    private Long findVersion(String resumeId, String userId) {
+        Query query = new Query(Criteria.where("_id").is(resumeId).and("userId").is(userId));
+        query.fields().include("version");
+        Resume resume = mongoTemplate.findOne(query, Resume.class);
+        if (resume == null) {
+            return null;
+        }
+        return resume.getVersion() == null ? 0L : resume.getVersion();
     }
 
     public void deleteResume(String resumeId, Object principal) {
@@ -111,5 +383,6 @@ public class ResumeService {
         Resume existingResume = resumeRepository.findByUserIdAndId(response.getId(), resumeId)
                 .orElseThrow(() -> new RuntimeException("Resume not found"));
         resumeRepository.delete(existingResume);
+        resumeRevisionService.deleteRevisions(resumeId);
     }
 }
@@ -0,0 +1,424 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Turns uploaded PDF and DOCX resumes into plain text within fixed memory, page, character and time budgets.
+ */
+@Service
+@Slf4j
+public class ResumeTextExtractor {
+
+    /**
+     * Ends every page of extracted PDF text, so page headers and footers can be told apart from content.
+     */
+    static final String PAGE_BREAK = "\f";
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String MC_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+    private static final String R_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PKG_RELS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        // Uploaded files are untrusted, never resolve DTDs or external entities
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final int maxChars;
+    private final int maxPages;
+    private final Duration timeout;
+    private final MemoryUsageSetting pdfMemoryUsage;
+    private final long maxDocxPartBytes;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter truncatedExtractions;
+
+    public ResumeTextExtractor(MeterRegistry meterRegistry,
+                               @Value("${ats.extraction.max-chars:20000}") int maxChars,
+                               @Value("${ats.extraction.max-pages:10}") int maxPages,
+                               @Value("${ats.extraction.timeout:5s}") Duration timeout,
+                               @Value("${ats.extraction.pdf.max-main-memory:16MB}") DataSize maxMainMemory,
+                               @Value("${ats.extraction.pdf.max-storage:64MB}") DataSize maxStorage,
+                               @Value("${ats.extraction.docx.max-part-size:32MB}") DataSize maxDocxPartSize) {
+        this.meterRegistry = meterRegistry;
+        this.maxChars = maxChars;
+        this.maxPages = maxPages;
+        this.timeout = timeout;
+        this.pdfMemoryUsage = MemoryUsageSetting.setupMixed(maxMainMemory.toBytes(), maxStorage.toBytes());
+        this.maxDocxPartBytes = maxDocxPartSize.toBytes();
+        this.truncatedExtractions = Counter.builder("ats.extraction.truncated")
+                .description("Extractions stopped early by the character, page or time budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The format a file is parsed as, {@code pdf} or {@code docx}, taken from its name.
+     */
+    public static String fileType(String fileName) {
+        if (fileName == null) {
+            throw new RuntimeException("File name is null");
+        }
+
+        String lowerFileName = fileName.toLowerCase();
+        if (lowerFileName.endsWith(".pdf")) {
+            return "pdf";
+        } else if (lowerFileName.endsWith(".docx")) {
+            return "docx";
+        } else {
+            throw new RuntimeException("Unsupported file type. Only PDF and DOCX are allowed.");
+        }
+    }
+
+    public String extract(byte[] content, String fileName) throws IOException {
+        String type = fileType(fileName);
+
+        long allocatedBefore = threadAllocatedBytes();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String text;
+        try {
+            text = type.equals("pdf") ? extractTextFromPDF(content) : extractTextFromDOCX(content);
+        } finally {
+            sample.stop(Timer.builder("ats.stage.extract")
+                    .description("Time spent turning an uploaded resume into plain text")
+                    .tag("type", type)
+                    .register(meterRegistry));
+        }
+
+        recordAllocation(type, allocatedBefore);
+        return text;
+    }
+
+    private String extractTextFromPDF(byte[] content) throws IOException {
+        // Decoded streams spill to a bounded scratch file instead of growing the heap
+        try (PDDocument document = PDDocument.load(content, "", null, null, pdfMemoryUsage)) {
+            StringWriter output = new StringWriter();
+            BudgetedTextStripper stripper = new BudgetedTextStripper(output, System.nanoTime() + timeout.toNanos());
+            stripper.setEndPage(Math.min(document.getNumberOfPages(), maxPages));
+            stripper.setPageEnd(stripper.getLineSeparator() + PAGE_BREAK);
+
+            try {
+                stripper.writeText(document, output);
+            } catch (ExtractionLimitReached e) {
+                log.info("Stopped PDF extraction early: {}", e.getMessage());
+            }
+
+            if (document.getNumberOfPages() > maxPages || stripper.limitReached) {
+                truncatedExtractions.increment();
+            }
+            return truncate(output.toString());
+        }
+    }
+
+    /**
+     * Streams word/document.xml and the header parts straight out of the zip with StAX, instead of building
+     * the XWPF DOM. Text in tables and text boxes is kept. Only the default headers the document refers to
+     * are used, not the first-page or even-page variants, and their text is placed before the body.
+     */
+    private String extractTextFromDOCX(byte[] content) throws IOException {
+        StringBuilder body = new StringBuilder();
+        Set<String> defaultHeaderIds = new LinkedHashSet<>();
+        Map<String, String> relationships = new HashMap<>();
+        // Parts can come in any order, so header text is kept per part until the references are known
+        Map<String, StringBuilder> headerParts = new HashMap<>();
+        int headerChars = 0;
+        boolean truncated = false;
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (name.equals("word/document.xml")) {
+                    truncated |= streamWordXml(new BoundedInputStream(zip, maxDocxPartBytes), body, maxChars, defaultHeaderIds);
+                } else if (name.equals("word/_rels/document.xml.rels")) {
+                    readRelationships(new BoundedInputStream(zip, maxDocxPartBytes), relationships);
+                } else if (name.startsWith("word/header") && name.endsWith(".xml") && headerChars < maxChars) {
+                    StringBuilder header = new StringBuilder();
+                    truncated |= streamWordXml(new BoundedInputStream(zip, maxDocxPartBytes), header, maxChars / 10, null);
+                    headerParts.put(name, header);
+                    headerChars += header.length();
+                }
+            }
+        }
+
+        StringBuilder headers = new StringBuilder();
+        for (String id : defaultHeaderIds) {
+            StringBuilder header = headerParts.get(partName(relationships.get(id)));
+            if (header != null) {
+                headers.append(header);
+            }
+        }
+        if (truncated) {
+            truncatedExtractions.increment();
+        }
+        return truncate(headers.isEmpty() ? body.toString() : headers + "\n" + body);
+    }
+
+    /**
+     * Reads the relationship ids of a part and the parts they point to.
+     */
+    private void readRelationships(InputStream rels, Map<String, String> relationships) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(rels);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && PKG_RELS_NS.equals(reader.getNamespaceURI())
+                        && "Relationship".equals(reader.getLocalName())) {
+                    relationships.put(reader.getAttributeValue(null, "Id"), reader.getAttributeValue(null, "Target"));
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid DOCX content: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // nothing to release, the zip stream is closed by the caller
+                }
+            }
+        }
+    }
+
+    /**
+     * Zip entry name of a relationship target of word/document.xml, which is relative to word/ unless absolute.
+     */
+    private static String partName(String target) {
+        if (target == null) {
+            return null;
+        }
+        return target.startsWith("/") ? target.substring(1) : "word/" + target;
+    }
+
+    /**
+     * Appends the text of one WordprocessingML part, returning true when it stopped at the character budget.
+     * With {@code defaultHeaderIds} the relationship ids of the default headers it refers to are collected;
+     * they sit in the section properties at the end of the body, so the rest of the part is still scanned
+     * for them once the budget is reached, without adding text.
+     */
+    private boolean streamWordXml(InputStream part, StringBuilder text, int budget, Set<String> defaultHeaderIds) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(part);
+            int fallbackDepth = 0;
+            int runDepth = 0;
+            boolean full = false;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String local = reader.getLocalName();
+                    // Text boxes are stored twice, once as DrawingML and once as a VML fallback
+                    if (MC_NS.equals(reader.getNamespaceURI()) && "Fallback".equals(local)) {
+                        fallbackDepth++;
+                    } else if (full) {
+                        if (W_NS.equals(reader.getNamespaceURI()) && "headerReference".equals(local)
+                                && "default".equals(reader.getAttributeValue(W_NS, "type"))) {
+                            defaultHeaderIds.add(reader.getAttributeValue(R_NS, "id"));
+                        }
+                    } else if (fallbackDepth == 0 && W_NS.equals(reader.getNamespaceURI())) {
+                        switch (local) {
+                            case "r" -> runDepth++;
+                            case "t" -> text.append(reader.getElementText());
+                            // w:tab is also a tab stop definition inside w:tabs, only a run holds tab characters
+                            case "tab" -> {
+                                if (runDepth > 0) {
+                                    text.append('\t');
+                                }
+                            }
+                            case "br", "cr" -> text.append('\n');
+                            case "headerReference" -> {
+                                if (defaultHeaderIds != null && "default".equals(reader.getAttributeValue(W_NS, "type"))) {
+                                    defaultHeaderIds.add(reader.getAttributeValue(R_NS, "id"));
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String local = reader.getLocalName();
+                    if (MC_NS.equals(reader.getNamespaceURI()) && "Fallback".equals(local)) {
+                        fallbackDepth--;
+                    } else if (!full && fallbackDepth == 0 && W_NS.equals(reader.getNamespaceURI())) {
+                        if ("r".equals(local)) {
+                            runDepth--;
+                        } else if ("p".equals(local)) {
+                            text.append('\n');
+                            if (text.length() >= budget) {
+                                if (defaultHeaderIds == null) {
+                                    return true;
+                                }
+                                full = true;
+                            }
+                        } else if ("tc".equals(local)) {
+                            // Keep a table row on one line, cells separated by tabs
+                            int last = text.length() - 1;
+                            if (last >= 0 && text.charAt(last) == '\n') {
+                                text.setCharAt(last, '\t');
+                            } else {
+                                text.append('\t');
+                            }
+                        } else if ("tr".equals(local)) {
+                            text.append('\n');
+                        }
+                    }
+                }
+            }
+            return full;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid DOCX content: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // nothing to release, the zip stream is closed by the caller
+                }
+            }
+        }
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    private void recordAllocation(String type, long allocatedBefore) {
+        long allocatedAfter = threadAllocatedBytes();
+        if (allocatedBefore < 0 || allocatedAfter < 0) {
+            return;
+        }
+        DistributionSummary.builder("ats.extraction.allocated")
+                .description("Heap allocated by the request thread while extracting resume text")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(allocatedAfter - allocatedBefore);
+    }
+
+    private static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return threadMXBean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Stops at page boundaries once the character budget is reached, and aborts mid-page once the
+     * wall-clock deadline has passed, so a malformed content stream cannot keep a thread busy.
+     */
+    private class BudgetedTextStripper extends PDFTextStripper {
+
+        private final StringWriter sink;
+        private final long deadlineNanos;
+        private int operations;
+        private boolean limitReached;
+
+        private BudgetedTextStripper(StringWriter sink, long deadlineNanos) throws IOException {
+            this.sink = sink;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            if (sink.getBuffer().length() >= maxChars) {
+                limitReached = true;
+                throw new ExtractionLimitReached("character budget of " + maxChars + " reached");
+            }
+            super.startPage(page);
+        }
+
+        @Override
+        protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+            if ((++operations & 0xFF) == 0 && System.nanoTime() > deadlineNanos) {
+                limitReached = true;
+                throw new ExtractionLimitReached("time budget of " + timeout.toMillis() + "ms exceeded");
+            }
+            super.processOperator(operator, operands);
+        }
+    }
+
+    /**
+     * Caps how much a single zip entry may inflate to, guarding against zip bombs. Does not close the zip.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // the enclosing ZipInputStream owns the underlying stream
+        }
+
+        private void consume(int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("DOCX part exceeds the maximum allowed size");
+            }
+        }
+    }
+
+    private static class ExtractionLimitReached extends IOException {
+        private ExtractionLimitReached(String message) {
+            super(message);
+        }
+    }
+}
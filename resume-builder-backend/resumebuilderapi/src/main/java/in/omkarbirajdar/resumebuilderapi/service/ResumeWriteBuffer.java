@@ -0,0 +1,425 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for full resume updates. The editor saves the whole resume every few seconds, so instead of one
+ * write per request, the updates arriving within {@code resume.autosave.window} are written together in one
+ * unordered bulk write, and updates of the same resume within the window are merged, the latest one wins.
+ * Every request waits until its update is stored before it is answered, so an acknowledged update survives a
+ * crash and is read from Mongo by every instance.
+ * <p>
+ * The bulk write only applies to a resume while it is still at the version read at the start of the flush, so
+ * the version it answers with is exact. A resume written by anything else in between, another instance
+ * included, is then written on its own as an unconditional update, like any update without If-Match. Updates
+ * are never dropped: one that cannot be written fails its request. Versions count every merged update, exactly
+ * as if each had been written.
+ * <p>
+ * The buffer is bounded by {@code resume.autosave.max-pending} resumes. Updates to further resumes, and updates
+ * with If-Match, whose precondition has to be checked by the update filter, are written directly by the caller.
+ * Updates still waiting on shutdown are written before the buffer stops. Every written version is handed to
+ * the {@link ResumeRevisionService}.
+ */
+@Service
+@Slf4j
+public class ResumeWriteBuffer {
+
+    private final MongoTemplate mongoTemplate;
+    private final ResumeRevisionService resumeRevisionService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxPending;
+
+    // Updates waiting for the next flush, swapped for an empty map by every flush
+    private final Object openLock = new Object();
+    private Map<String, PendingWrite> open = new LinkedHashMap<>();
+    private boolean closed;
+    // A single thread writes the batches, so two flushes never overlap
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resume-autosave-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter bufferedEdits;
+    private final Counter directEdits;
+    private final Counter writtenResumes;
+    private final Counter failedResumes;
+    private final Counter conflictedResumes;
+    private final Timer flushTimer;
+
+    public ResumeWriteBuffer(MongoTemplate mongoTemplate,
+                             ResumeRevisionService resumeRevisionService,
+                             MeterRegistry meterRegistry,
+                             @Value("${resume.autosave.enabled:true}") boolean enabled,
+                             @Value("${resume.autosave.window:50ms}") Duration window,
+                             @Value("${resume.autosave.max-pending:5000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.resumeRevisionService = resumeRevisionService;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxPending = maxPending;
+
+        Gauge.builder("resume.autosave.pending", this, ResumeWriteBuffer::pendingResumes)
+                .description("Resumes with updates waiting to be written")
+                .register(meterRegistry);
+        this.bufferedEdits = editCounter(meterRegistry, "buffered");
+        this.directEdits = editCounter(meterRegistry, "direct");
+        this.writtenResumes = writeCounter(meterRegistry, "written");
+        this.failedResumes = writeCounter(meterRegistry, "failed");
+        this.conflictedResumes = writeCounter(meterRegistry, "conflict");
+        this.flushTimer = Timer.builder("resume.autosave.flush")
+                .description("Time spent writing buffered resume updates in one bulk write")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static final class PendingWrite {
+        private final String userId;
+        // Merged updates in the order they arrived, the last one is written
+        private final List<Edit> edits = new ArrayList<>();
+
+        private PendingWrite(String userId) {
+            this.userId = userId;
+        }
+
+        private Edit last() {
+            return edits.get(edits.size() - 1);
+        }
+    }
+
+    private record Edit(Resume data, LocalDateTime updatedAt, CompletableFuture<Resume> written) {
+    }
+
+    private record BulkItem(String resumeId, PendingWrite entry, long version, LocalDateTime createdAt) {
+    }
+
+    /**
+     * The editable fields a full update replaces.
+     */
+    public static Update replaceEditableFields(Resume data) {
+        return new Update()
+                .set("title", data.getTitle())
+                .set("thumbnailLink", data.getThumbnailLink())
+                .set("template", data.getTemplate())
+                .set("profileInfo", data.getProfileInfo())
+                .set("contactInfo", data.getContactInfo())
+                .set("workExperience", data.getWorkExperience())
+                .set("education", data.getEducation())
+                .set("skills", data.getSkills())
+                .set("projects", data.getProjects())
+                .set("certifications", data.getCertifications())
+                .set("languages", data.getLanguages())
+                .set("interests", data.getInterests());
+    }
+
+    /**
+     * Writes a full update of the user's resume with the next flush and waits until it is stored. Updates with
+     * {@code expectedVersions} are not buffered, they have to be written directly.
+     *
+     * @return the resume as written, or null when the update has to be written directly
+     * @throws RuntimeException when the update could not be written
+     */
+    public Resume update(String resumeId, String userId, Resume data, List<Long> expectedVersions) {
+        if (!enabled) {
+            return null;
+        }
+        if (expectedVersions != null) {
+            directEdits.increment();
+            return null;
+        }
+
+        //Step 1: join the open batch, the first update of a batch schedules its flush
+        Edit edit = new Edit(data, LocalDateTime.now(), new CompletableFuture<>());
+        synchronized (openLock) {
+            if (closed) {
+                return null;
+            }
+            PendingWrite entry = open.get(resumeId);
+            if (entry == null) {
+                if (open.size() >= maxPending) {
+                    directEdits.increment();
+                    return null;
+                }
+                entry = new PendingWrite(userId);
+                open.put(resumeId, entry);
+                if (open.size() == 1) {
+                    flusher.schedule(this::flushOpen, windowNanos, TimeUnit.NANOSECONDS);
+                } else if (open.size() == maxPending) {
+                    flusher.execute(this::flushOpen);
+                }
+            } else if (!entry.userId.equals(userId)) {
+                // Not this user's resume, the direct write answers with not found
+                directEdits.increment();
+                return null;
+            }
+            entry.edits.add(edit);
+            bufferedEdits.increment();
+        }
+
+        //Step 2: answer only once the update is stored
+        try {
+            return edit.written().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronized (openLock) {
+            closed = true;
+        }
+        flusher.execute(this::flushOpen);
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.error("Buffered resume updates were still being written on shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int pendingResumes() {
+        synchronized (openLock) {
+            return open.size();
+        }
+    }
+
+    private void flushOpen() {
+        Map<String, PendingWrite> batch;
+        synchronized (openLock) {
+            batch = open;
+            open = new LinkedHashMap<>();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            // Requests that were not answered yet learn that their update was not stored
+            log.error("Could not write {} buffered resume updates: {}", batch.size(), e.getMessage());
+            failedResumes.increment(batch.size());
+            batch.values().forEach(entry -> fail(entry, e));
+        }
+    }
+
+    /**
+     * Writes a batch in one unordered bulk write. Resumes the bulk write did not write are written on their own.
+     *
+     * @throws RuntimeException when the bulk write as a whole fails
+     */
+    private void write(Map<String, PendingWrite> batch) {
+        //Step 1: read the stored version of every resume of the batch in one query
+        Query query = new Query(Criteria.where("_id").in(batch.keySet()));
+        query.fields().include("userId", "version", "createdAt");
+        Map<String, Resume> stored = new HashMap<>();
+        mongoTemplate.find(query, Resume.class).forEach(resume -> stored.put(resume.getId(), resume));
+
+        //Step 2: write them together while each is still at that version, the version moves on by the number of merged updates
+        List<BulkItem> items = new ArrayList<>();
+        List<String> single = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Resume.class);
+        batch.forEach((resumeId, entry) -> {
+            Resume resume = stored.get(resumeId);
+            if (resume == null || !entry.userId.equals(resume.getUserId())) {
+                // The single write reports it as not found
+                single.add(resumeId);
+                return;
+            }
+            long version = resume.getVersion() == null ? 0L : resume.getVersion();
+            bulk.updateOne(new Query(atVersion(resumeId, entry.userId, version)), fullUpdate(entry));
+            items.add(new BulkItem(resumeId, entry, version + entry.edits.size(), resume.getCreatedAt()));
+        });
+
+        Map<Integer, String> failed = new HashMap<>();
+        Set<Integer> conflicts = Set.of();
+        if (!items.isEmpty()) {
+            BulkWriteResult result;
+            Timer.Sample sample = Timer.start();
+            try {
+                result = bulk.execute();
+            } catch (BulkOperationException e) {
+                // Unordered, the other updates were still written
+                result = e.getResult();
+                for (BulkWriteError error : e.getErrors()) {
+                    failed.put(error.getIndex(), error.getMessage());
+                }
+                log.warn("Could not write {} of {} buffered resume updates in bulk: {}", failed.size(), items.size(), e.getMessage());
+            } finally {
+                sample.stop(flushTimer);
+            }
+
+            //Step 3: updates that matched no resume lost against another write
+            if (result.getMatchedCount() < items.size() - failed.size()) {
+                conflicts = findConflicts(items, failed.keySet());
+            }
+        }
+
+        //Step 4: answer the requests of the resumes that were written
+        for (int i = 0; i < items.size(); i++) {
+            BulkItem item = items.get(i);
+            if (failed.containsKey(i) || conflicts.contains(i)) {
+                single.add(item.resumeId());
+            } else {
+                complete(item.resumeId(), item.entry(), item.version(), item.createdAt());
+            }
+        }
+        writtenResumes.increment(items.size() - failed.size() - conflicts.size());
+        conflictedResumes.increment(conflicts.size());
+
+        //Step 5: the rest are written on their own, unconditionally like any update without If-Match
+        single.forEach(resumeId -> writeSingle(resumeId, batch.get(resumeId)));
+    }
+
+    private void writeSingle(String resumeId, PendingWrite entry) {
+        try {
+            Resume written = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(resumeId).and("userId").is(entry.userId)),
+                    fullUpdate(entry), FindAndModifyOptions.options().returnNew(true), Resume.class);
+            if (written == null) {
+                fail(entry, new RuntimeException("Resume not found"));
+                return;
+            }
+            writtenResumes.increment();
+            complete(resumeId, entry, written.getVersion(), written.getCreatedAt());
+        } catch (RuntimeException e) {
+            log.warn("Could not write buffered updates of resume {}: {}", resumeId, e.getMessage());
+            failedResumes.increment();
+            fail(entry, e);
+        }
+    }
+
+    private static Update fullUpdate(PendingWrite entry) {
+        return replaceEditableFields(entry.last().data())
+                .set("updatedAt", entry.last().updatedAt())
+                .inc("version", entry.edits.size());
+    }
+
+    /**
+     * Answers every merged update with its own content and the version it counts as, then records the
+     * written version as a revision.
+     */
+    private void complete(String resumeId, PendingWrite entry, long version, LocalDateTime createdAt) {
+        int count = entry.edits.size();
+        for (int i = 0; i < count; i++) {
+            Edit edit = entry.edits.get(i);
+            edit.written().complete(toResume(resumeId, entry.userId, edit, version - (count - 1 - i), createdAt));
+        }
+        resumeRevisionService.record(resumeId, entry.userId, version, entry.last().data());
+    }
+
+    private static void fail(PendingWrite entry, RuntimeException error) {
+        entry.edits.forEach(edit -> edit.written().completeExceptionally(error));
+    }
+
+    /**
+     * Filter of the user's resume at a version. Resumes stored before versioning have none and count as 0.
+     */
+    private static Criteria atVersion(String resumeId, String userId, long version) {
+        Criteria criteria = Criteria.where("_id").is(resumeId).and("userId").is(userId);
+        return version == 0
+                ? criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+                : criteria.and("version").is(version);
+    }
+
+    /**
+     * The bulk result only counts matches, so the resumes that did not carry this flush's version and
+     * modification time afterwards are the ones it did not write. Only runs when a match is missing.
+     */
+    private Set<Integer> findConflicts(List<BulkItem> items, Set<Integer> failed) {
+        List<String> ids = items.stream().map(BulkItem::resumeId).toList();
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("version", "updatedAt");
+        Map<String, Resume> stored = new HashMap<>();
+        mongoTemplate.find(query, Resume.class).forEach(resume -> stored.put(resume.getId(), resume));
+
+        Set<Integer> conflicts = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkItem item = items.get(i);
+            Resume resume = stored.get(item.resumeId());
+            LocalDateTime updatedAt = item.entry().last().updatedAt();
+            boolean written = resume != null
+                    && resume.getVersion() != null && resume.getVersion() == item.version()
+                    && resume.getUpdatedAt() != null
+                    // Mongo keeps milliseconds
+                    && resume.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS).equals(updatedAt.truncatedTo(ChronoUnit.MILLIS));
+            if (!failed.contains(i) && !written) {
+                conflicts.add(i);
+            }
+        }
+        return conflicts;
+    }
+
+    private static Resume toResume(String resumeId, String userId, Edit edit, long version, LocalDateTime createdAt) {
+        Resume data = edit.data();
+        return Resume.builder()
+                .id(resumeId)
+                .userId(userId)
+                .title(data.getTitle())
+                .thumbnailLink(data.getThumbnailLink())
+                .template(data.getTemplate())
+                .profileInfo(data.getProfileInfo())
+                .contactInfo(data.getContactInfo())
+                .workExperience(data.getWorkExperience())
+                .education(data.getEducation())
+                .skills(data.getSkills())
+                .projects(data.getProjects())
+                .certifications(data.getCertifications())
+                .languages(data.getLanguages())
+                .interests(data.getInterests())
+                .version(version)
+                .createdAt(createdAt)
+                .updatedAt(edit.updatedAt())
+                .build();
+    }
+
+    private static Counter editCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("resume.autosave.edits")
+                .description("Full resume updates, buffered or written directly when sent with If-Match or the buffer was full")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter writeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("resume.autosave.writes")
+                .description("Resume documents written by buffer flushes")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,193 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Local stand-in for the LLM, enabled with {@code llm.provider=stub}. It answers after a sampled latency,
+ * fails a configurable share of calls with {@link LlmUnavailableException}, and returns either a canned
+ * analysis or the canned analysis with every prompt line echoed as an issue, so the answer grows with the
+ * prompt. Streams are cut into small chunks spread over the sampled latency. Round trips are timed as
+ * {@code ats.stage.llm} like Groq's, which keeps load test reports comparable.
+ */
+@Service
+@ConditionalOnProperty(name = "llm.provider", havingValue = "stub")
+@Slf4j
+public class StubLlmProvider implements LlmProvider {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private static final String DEFAULT_RESPONSE = """
+            {"formatScore": 78, "contentScore": 67,
+             "issues": ["Summary does not mention years of experience", "Several bullets lack measurable results"],
+             "suggestions": ["Quantify the impact of each role", "Lead every bullet with an action verb"],
+             "keywordSuggestions": ["Kubernetes", "CI/CD", "System Design", "Microservices"]}
+            """;
+
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stub-llm");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String model;
+    private final String distribution;
+    private final Duration minLatency;
+    private final Duration maxLatency;
+    private final Duration medianLatency;
+    private final Duration p99Latency;
+    private final double errorRate;
+    private final boolean echo;
+    private final int streamChunkChars;
+    private final ObjectNode cannedResponse;
+
+    public StubLlmProvider(MeterRegistry meterRegistry,
+                           @Value("${llm.stub.model:stub}") String model,
+                           @Value("${llm.stub.latency.distribution:lognormal}") String distribution,
+                           @Value("${llm.stub.latency.min:200ms}") Duration minLatency,
+                           @Value("${llm.stub.latency.max:2s}") Duration maxLatency,
+                           @Value("${llm.stub.latency.median:800ms}") Duration medianLatency,
+                           @Value("${llm.stub.latency.p99:3s}") Duration p99Latency,
+                           @Value("${llm.stub.error-rate:0}") double errorRate,
+                           @Value("${llm.stub.response:canned}") String response,
+                           @Value("${llm.stub.response-file:}") String responseFile,
+                           @Value("${llm.stub.stream-chunk-chars:16}") int streamChunkChars) throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.model = model;
+        this.distribution = distribution;
+        this.minLatency = minLatency;
+        this.maxLatency = maxLatency;
+        this.medianLatency = medianLatency;
+        this.p99Latency = p99Latency;
+        this.errorRate = errorRate;
+        this.echo = "echo".equalsIgnoreCase(response);
+        this.streamChunkChars = Math.max(1, streamChunkChars);
+        this.cannedResponse = (ObjectNode) objectMapper.readTree(responseFile.isBlank()
+                ? DEFAULT_RESPONSE
+                : Files.readString(Path.of(responseFile)));
+        log.warn("Using the stub LLM provider ({} latency, median {}, error rate {}, {} responses)",
+                distribution, medianLatency, errorRate, echo ? "echo" : "canned");
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public String chatCompletion(String prompt) {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(sampleLatency().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Interrupted while waiting for the stub LLM", e);
+        }
+        if (injectFailure()) {
+            recordRoundTrip("blocking", "503", start);
+            throw new LlmUnavailableException("Stub LLM returned status 503");
+        }
+        recordRoundTrip("blocking", "200", start);
+        return answer(prompt);
+    }
+
+    @Override
+    public CompletableFuture<Void> streamChatCompletion(String prompt, Consumer<String> onContent) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long start = System.nanoTime();
+        done.whenComplete((ignored, error) -> recordRoundTrip("stream", error == null ? "200" : "503", start));
+
+        long latencyNanos = sampleLatency().toNanos();
+        if (injectFailure()) {
+            scheduler.schedule(() -> done.completeExceptionally(new LlmUnavailableException("Stub LLM returned status 503")),
+                    latencyNanos, TimeUnit.NANOSECONDS);
+            return done;
+        }
+
+        String content = answer(prompt);
+        int chunks = (content.length() + streamChunkChars - 1) / streamChunkChars;
+        for (int i = 0; i < chunks; i++) {
+            String chunk = content.substring(i * streamChunkChars, Math.min(content.length(), (i + 1) * streamChunkChars));
+            boolean last = i == chunks - 1;
+            scheduler.schedule(() -> {
+                if (done.isDone()) {
+                    return;
+                }
+                try {
+                    onContent.accept(chunk);
+                    if (last) {
+                        done.complete(null);
+                    }
+                } catch (RuntimeException e) {
+                    done.completeExceptionally(new LlmUnavailableException("Stream consumer failed: " + e.getMessage(), e));
+                }
+            }, latencyNanos * (i + 1) / chunks, TimeUnit.NANOSECONDS);
+        }
+        return done;
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private String answer(String prompt) {
+        if (!echo) {
+            return cannedResponse.toString();
+        }
+        ObjectNode response = cannedResponse.deepCopy();
+        ArrayNode issues = response.putArray("issues");
+        prompt.lines().map(String::strip).filter(line -> !line.isEmpty()).forEach(issues::add);
+        return response.toString();
+    }
+
+    private Duration sampleLatency() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (distribution.toLowerCase()) {
+            case "fixed" -> medianLatency;
+            case "uniform" -> Duration.ofNanos(random.nextLong(minLatency.toNanos(), Math.max(minLatency.toNanos(), maxLatency.toNanos()) + 1));
+            default -> {
+                // Log-normal with the configured median and 99th percentile, the usual shape of LLM latency
+                double median = Math.max(1, medianLatency.toNanos());
+                double sigma = Math.max(0, Math.log(Math.max(median, p99Latency.toNanos()) / median) / Z_99);
+                yield Duration.ofNanos((long) (median * Math.exp(sigma * random.nextGaussian())));
+            }
+        };
+    }
+
+    private boolean injectFailure() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    private void recordRoundTrip(String mode, String status, long startNanos) {
+        Timer.builder("ats.stage.llm")
+                .description("LLM round trip per attempt, until the whole answer has been received")
+                .tag("mode", mode)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
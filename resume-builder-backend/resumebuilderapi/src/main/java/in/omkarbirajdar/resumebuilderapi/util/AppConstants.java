@@ -15,9 +15,19 @@ public class AppConstants {
     public static final String RESUME = "/api/resumes";
     public static final String ID = "/{id}";
     public static final String UPLOAD_IMAGES = "/{id}/upload-images";
+    public static final String IMPORT = "/import";
+    public static final String SUMMARIES = "/summaries";
+    public static final String REVISIONS = "/{id}/revisions";
+    public static final String REVISION = "/{id}/revisions/{version}";
+    public static final String RESTORE_REVISION = "/{id}/revisions/{version}/restore";
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
     public static final String PREMIUM = "premium";
     public static final String TEMPLATES = "/api/templates";
 
+    //ATS routes
+    public static final String ATS = "/api/ats";
+    public static final String ATS_BATCH = "/batch";
+
     //Email routes
     public static final String EMAIL = "/api/email";
     public static final String SEND_RESUME = "/send-resume";
@@ -0,0 +1,96 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Minimal consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the
+ * breaker opens and rejects calls for {@code openDuration}, then lets a single trial call through.
+ * Every admitted call holds a {@link Permit} that is closed when the call is over, so a trial that ends
+ * without recording an outcome does not keep the breaker half open.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+    // Tells the current trial apart from earlier ones
+    private long trials;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * A call admitted by {@link #acquire()}. Close it in a finally block once the call is over.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long trial;
+
+        private Permit(long trial) {
+            this.trial = trial;
+        }
+
+        @Override
+        public void close() {
+            synchronized (CircuitBreaker.this) {
+                // Only the current trial frees the slot, and only if it recorded no outcome
+                if (trial != 0 && trial == trials && state == State.HALF_OPEN) {
+                    trialInFlight = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Admits a call, or returns null while the breaker is open or its trial call is in flight.
+     */
+    public synchronized Permit acquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return null;
+            }
+            trialInFlight = true;
+            return new Permit(++trials);
+        }
+        return state == State.CLOSED ? new Permit(0) : null;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
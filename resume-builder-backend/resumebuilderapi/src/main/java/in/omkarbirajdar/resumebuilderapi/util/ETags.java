@@ -0,0 +1,64 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strong ETags for versioned documents, the tag is the quoted version number.
+ */
+public class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * Versions an {@code If-Match} header accepts, or {@code null} for {@code *}. Weak tags never match,
+     * If-Match uses the strong comparison.
+     */
+    public static List<Long> parseIfMatch(String header) {
+        if (header.strip().equals("*")) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String tag : header.split(",")) {
+            Long version = parse(tag.strip());
+            if (version != null) {
+                versions.add(version);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the given version, using the weak comparison.
+     */
+    public static boolean matchesIfNoneMatch(String header, Long version) {
+        if (header.strip().equals("*")) {
+            return true;
+        }
+        long current = version == null ? 0 : version;
+        for (String tag : header.split(",")) {
+            String strong = tag.strip();
+            Long tagged = parse(strong.startsWith("W/") ? strong.substring(2) : strong);
+            if (tagged != null && tagged == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long parse(String tag) {
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
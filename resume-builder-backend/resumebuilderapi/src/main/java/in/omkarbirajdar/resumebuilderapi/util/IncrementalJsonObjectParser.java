@@ -0,0 +1,119 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses a JSON object that arrives in arbitrary chunks and reports each top-level field as soon as its
+ * value is complete. Anything before the opening brace (such as a markdown fence) and after the closing
+ * brace is ignored. Not thread-safe; feed chunks from one thread at a time.
+ */
+public class IncrementalJsonObjectParser {
+
+    private final ObjectMapper objectMapper;
+    private final BiConsumer<String, JsonNode> onField;
+    private final JsonParser parser;
+    private final ObjectNode result;
+
+    private boolean started;
+    private boolean finished;
+    private boolean inObject;
+    private String currentField;
+    private TokenBuffer valueBuffer;
+    private int valueDepth;
+
+    public IncrementalJsonObjectParser(ObjectMapper objectMapper, BiConsumer<String, JsonNode> onField) {
+        this.objectMapper = objectMapper;
+        this.onField = onField;
+        this.result = objectMapper.createObjectNode();
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            chunk = chunk.substring(start);
+            started = true;
+        }
+
+        try {
+            byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+
+            JsonToken token;
+            while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed JSON in streamed response", e);
+        }
+    }
+
+    public boolean isComplete() {
+        return finished;
+    }
+
+    /**
+     * All fields parsed so far, or the whole object once {@link #isComplete()} is true.
+     */
+    public ObjectNode getResult() {
+        return result;
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        if (!inObject) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object but got " + token);
+            }
+            inObject = true;
+            return;
+        }
+
+        if (valueBuffer == null) {
+            if (token == JsonToken.FIELD_NAME) {
+                currentField = parser.currentName();
+                return;
+            }
+            if (token == JsonToken.END_OBJECT) {
+                finished = true;
+                return;
+            }
+            valueBuffer = new TokenBuffer(objectMapper, false);
+            valueDepth = 0;
+        }
+
+        valueBuffer.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+            valueDepth++;
+        } else if (token.isStructEnd()) {
+            valueDepth--;
+        }
+
+        if (valueDepth == 0) {
+            JsonNode value = objectMapper.readTree(valueBuffer.asParser());
+            valueBuffer = null;
+            result.set(currentField, value);
+            onField.accept(currentField, value);
+        }
+    }
+}
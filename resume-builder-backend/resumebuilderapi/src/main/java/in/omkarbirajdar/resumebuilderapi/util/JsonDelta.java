@@ -0,0 +1,125 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+
+/**
+ * Structural difference of two JSON trees as JSON Patch operations (RFC 6902, {@code add}, {@code remove}
+ * and {@code replace} only). Objects are compared key by key and arrays element by element, so editing one
+ * bullet of one role yields one small operation rather than a copy of the whole list. Elements added or
+ * removed at the end of an array are added or removed, a shift in the middle shows up as replacements.
+ */
+public class JsonDelta {
+
+    private JsonDelta() {
+    }
+
+    /**
+     * The operations that turn {@code source} into {@code target}, empty when they are equal.
+     */
+    public static ArrayNode diff(JsonNode source, JsonNode target) {
+        ArrayNode operations = JsonNodeFactory.instance.arrayNode();
+        diff(source, target, "", operations);
+        return operations;
+    }
+
+    /**
+     * Applies operations made by {@link #diff} to a copy of {@code source}.
+     *
+     * @throws IllegalArgumentException when an operation does not fit the tree
+     */
+    public static JsonNode apply(JsonNode source, ArrayNode operations) {
+        JsonNode result = source.deepCopy();
+        for (JsonNode operation : operations) {
+            String path = operation.path("path").asText();
+            String op = operation.path("op").asText();
+            JsonNode value = operation.get("value");
+            if (path.isEmpty()) {
+                if (!"replace".equals(op) || value == null) {
+                    throw new IllegalArgumentException("Only the whole document can be replaced at the root");
+                }
+                result = value.deepCopy();
+                continue;
+            }
+
+            int slash = path.lastIndexOf('/');
+            JsonNode parent = result.at(path.substring(0, slash));
+            String token = unescape(path.substring(slash + 1));
+            if (parent instanceof ObjectNode object) {
+                if ("remove".equals(op)) {
+                    object.remove(token);
+                } else {
+                    object.set(token, value);
+                }
+            } else if (parent instanceof ArrayNode array) {
+                int index = "-".equals(token) ? array.size() : parseIndex(token, path);
+                switch (op) {
+                    case "add" -> array.insert(index, value);
+                    case "replace" -> array.set(index, value);
+                    case "remove" -> array.remove(index);
+                    default -> throw new IllegalArgumentException("Unsupported operation " + op);
+                }
+            } else {
+                throw new IllegalArgumentException("No container at " + path);
+            }
+        }
+        return result;
+    }
+
+    private static void diff(JsonNode source, JsonNode target, String path, ArrayNode operations) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (source.isObject() && target.isObject()) {
+            for (Iterator<String> names = source.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                if (!target.has(name)) {
+                    operations.addObject().put("op", "remove").put("path", path + "/" + escape(name));
+                }
+            }
+            for (Iterator<String> names = target.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                String childPath = path + "/" + escape(name);
+                if (source.has(name)) {
+                    diff(source.get(name), target.get(name), childPath, operations);
+                } else {
+                    operations.addObject().put("op", "add").put("path", childPath).set("value", target.get(name));
+                }
+            }
+        } else if (source.isArray() && target.isArray()) {
+            int common = Math.min(source.size(), target.size());
+            for (int i = 0; i < common; i++) {
+                diff(source.get(i), target.get(i), path + "/" + i, operations);
+            }
+            for (int i = common; i < target.size(); i++) {
+                operations.addObject().put("op", "add").put("path", path + "/" + i).set("value", target.get(i));
+            }
+            // From the end, so the indexes of the elements still to remove stay valid
+            for (int i = source.size() - 1; i >= common; i--) {
+                operations.addObject().put("op", "remove").put("path", path + "/" + i);
+            }
+        } else {
+            operations.addObject().put("op", "replace").put("path", path).set("value", target);
+        }
+    }
+
+    private static int parseIndex(String token, String path) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid array index in " + path, e);
+        }
+    }
+
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
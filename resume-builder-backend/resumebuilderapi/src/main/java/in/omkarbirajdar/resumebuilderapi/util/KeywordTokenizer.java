@@ -0,0 +1,123 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits resume and job description text into stemmed keyword terms for matching. Technical tokens with
+ * digits or symbols ({@code c++}, {@code node.js}, {@code k8s}) are kept as they are; plain words get a light
+ * suffix-stripping stem so "optimized", "optimizing" and "optimization" land on the same term.
+ */
+public class KeywordTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "above", "across", "after", "all", "also", "an", "and", "any", "are", "as", "at", "be",
+            "been", "being", "both", "but", "by", "can", "could", "do", "does", "each", "either", "etc", "for",
+            "from", "has", "have", "having", "he", "her", "his", "how", "i", "if", "in", "into", "is", "it", "its",
+            "may", "more", "most", "must", "my", "no", "not", "of", "on", "one", "or", "other", "our", "out", "over",
+            "per", "plus", "should", "so", "some", "such", "than", "that", "the", "their", "them", "then", "there",
+            "these", "they", "this", "those", "through", "to", "under", "up", "us", "using", "very", "via", "was",
+            "we", "well", "were", "what", "when", "where", "which", "while", "who", "will", "with", "within",
+            "would", "you", "your",
+            // Job posting boilerplate that says nothing about the role itself
+            "ability", "able", "apply", "candidate", "candidates", "company", "environment", "excellent",
+            "experience", "familiarity", "good", "great", "hiring", "ideal", "including", "join", "knowledge", "looking",
+            "minimum", "new", "opportunity", "preferred", "required", "requirement", "requirements",
+            "responsibilities", "responsible", "role", "seeking", "skills", "strong", "team", "understanding", "work",
+            "working", "year", "years");
+
+    // Longest suffixes first; each maps to its replacement
+    private static final String[][] SUFFIXES = {
+            {"izations", "iz"}, {"ization", "iz"}, {"ational", "at"}, {"fulness", "ful"}, {"iveness", "ive"},
+            {"ations", "at"}, {"ation", "at"}, {"ments", ""}, {"ment", ""}, {"ness", ""}, {"ings", ""},
+            {"ing", ""}, {"ies", "y"}, {"ied", "y"}, {"ed", ""}, {"ly", ""}, {"es", ""}, {"s", ""}};
+
+    private static final Map<String, String> IRREGULAR = Map.of(
+            "led", "lead", "built", "build", "wrote", "write", "ran", "run", "grew", "grow", "drove", "drive");
+
+    private KeywordTokenizer() {
+    }
+
+    public interface TermConsumer {
+        void accept(String term, String surface);
+    }
+
+    /**
+     * Feeds every keyword term of {@code text} to {@code consumer} together with the lower-cased word it came
+     * from. Stop words and single characters are skipped.
+     */
+    public static void tokenize(String text, TermConsumer consumer) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isTokenChar(text, i)) {
+                i++;
+            }
+            String surface = text.substring(start, i).toLowerCase(Locale.ROOT);
+            if (surface.length() > 1 && !STOP_WORDS.contains(surface)) {
+                consumer.accept(stem(surface), surface);
+            }
+        }
+    }
+
+    public static TermCounter termCounts(String text) {
+        TermCounter terms = new TermCounter(256);
+        tokenize(text, (term, surface) -> terms.increment(term));
+        return terms;
+    }
+
+    public static String stem(String word) {
+        String irregular = IRREGULAR.get(word);
+        if (irregular != null) {
+            return irregular;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return word;
+            }
+        }
+        // "process", "status" and "analysis" are not plurals, "apis" is
+        if (word.length() <= 3 || word.endsWith("ss") || word.endsWith("us") || (word.endsWith("is") && word.length() > 4)) {
+            return word;
+        }
+
+        String stem = word;
+        for (String[] suffix : SUFFIXES) {
+            if (word.endsWith(suffix[0]) && word.length() - suffix[0].length() >= 3) {
+                stem = word.substring(0, word.length() - suffix[0].length()) + suffix[1];
+                break;
+            }
+        }
+
+        // "running" -> "runn" -> "run", "optimize" -> "optimiz" to meet "optimized" -> "optimiz"
+        int last = stem.length() - 1;
+        if (stem.length() > 3 && stem.charAt(last) == stem.charAt(last - 1) && isConsonant(stem.charAt(last))
+                && "lsz".indexOf(stem.charAt(last)) < 0) {
+            stem = stem.substring(0, last);
+        } else if (stem.length() > 4 && stem.charAt(last) == 'e') {
+            stem = stem.substring(0, last);
+        }
+        return stem;
+    }
+
+    private static boolean isTokenChar(String text, int i) {
+        char c = text.charAt(i);
+        if (Character.isLetterOrDigit(c) || c == '+' || c == '#') {
+            return true;
+        }
+        // Keep "node.js" and "ci/cd" together, but not a sentence-ending period
+        return (c == '.' || c == '-' || c == '/') && i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1))
+                && i > 0 && Character.isLetterOrDigit(text.charAt(i - 1));
+    }
+
+    private static boolean isConsonant(char c) {
+        return "aeiouy".indexOf(c) < 0;
+    }
+}
@@ -0,0 +1,37 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Locale;
+
+/**
+ * Checks on uploaded resume files, shared by the ATS analysis and the resume import.
+ */
+public class ResumeFiles {
+
+    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+
+    private ResumeFiles() {
+    }
+
+    /**
+     * Why the upload cannot be used as a resume, or {@code null} if it can.
+     */
+    public static String validate(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return "Please upload a file";
+        }
+
+        if (file.getSize() > MAX_FILE_SIZE) {
+            return "File size must be less than 5MB";
+        }
+
+        String fileName = file.getOriginalFilename();
+        if (fileName == null ||
+                (!fileName.toLowerCase(Locale.ROOT).endsWith(".pdf") &&
+                        !fileName.toLowerCase(Locale.ROOT).endsWith(".docx"))) {
+            return "Only PDF and DOCX files are allowed";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,550 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections.Section;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based parser that turns extracted resume text into the structured {@link Resume} fields the editor uses.
+ * <p>
+ * The text is read once, line by line, with a small state machine per section: heading lines switch the
+ * section, a line with a date range or after a finished entry starts a new experience or education entry,
+ * and bullet lines fill the description of the current one. Dates are normalized to the editor's
+ * {@code YYYY-MM} format. Anything the rules cannot place is left empty for the user to fill in.
+ */
+public class ResumeImportParser {
+
+    private static final String BULLET_CHARS = "•▪●◦■□➢➤►*·-–";
+
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+\\.[\\w.-]+");
+    private static final Pattern PHONE = Pattern.compile("\\+?\\d[\\d\\s().-]{7,}\\d");
+    private static final Pattern URL = Pattern.compile("(?i)(https?://)?(www\\.)?[\\w-]+(\\.[\\w-]+)*\\.(com|in|io|dev|me|org|net|app|co)(/[\\w./?=&%#-]*)?");
+    private static final Pattern LOCATION = Pattern.compile("^[A-Z][a-zA-Z .]+,\\s*[A-Z][a-zA-Z .]+$");
+
+    private static final String MONTH = "(jan|feb|mar|apr|may|jun|jul|aug|sep|sept|oct|nov|dec)[a-z]*\\.?";
+    private static final String DATE = "(?:" + MONTH + "\\s*'?\\d{2,4}|\\d{1,2}[/.-]\\d{4}|\\d{4}[/.-]\\d{1,2}|\\d{4})";
+    private static final Pattern DATE_RANGE = Pattern.compile("(?i)\\(?\\s*(" + DATE + ")\\s*(?:-|–|—|to|till|until)\\s*("
+            + DATE + "|present|current|now|ongoing|date)\\s*\\)?");
+    private static final Pattern SINGLE_YEAR = Pattern.compile("\\(?\\b((?:19|20)\\d{2})\\b\\)?");
+    private static final Pattern MONTH_YEAR = Pattern.compile("(?i)" + MONTH + "\\s*'?(\\d{2,4})");
+    private static final Pattern NUMERIC_DATE = Pattern.compile("(\\d{1,4})[/.-](\\d{1,4})");
+
+    private static final Map<String, String> MONTHS = Map.ofEntries(
+            Map.entry("jan", "01"), Map.entry("feb", "02"), Map.entry("mar", "03"), Map.entry("apr", "04"),
+            Map.entry("may", "05"), Map.entry("jun", "06"), Map.entry("jul", "07"), Map.entry("aug", "08"),
+            Map.entry("sep", "09"), Map.entry("oct", "10"), Map.entry("nov", "11"), Map.entry("dec", "12"));
+
+    private static final Set<String> ROLE_WORDS = Set.of(
+            "engineer", "developer", "intern", "manager", "analyst", "designer", "lead", "consultant", "architect",
+            "scientist", "specialist", "director", "officer", "associate", "administrator", "head", "programmer",
+            "trainee", "founder", "co-founder", "executive", "coordinator", "researcher", "assistant", "sde",
+            "technician", "tester", "strategist", "representative", "advisor", "owner", "fellow");
+
+    private static final Set<String> DEGREE_WORDS = Set.of(
+            "b.tech", "btech", "m.tech", "mtech", "b.e", "b.e.", "be", "m.e", "b.sc", "bsc", "m.sc", "msc", "bca",
+            "mca", "mba", "bba", "phd", "ph.d", "b.a", "m.a", "ba", "ma", "bachelor", "bachelors", "bachelor's",
+            "master", "masters", "master's", "diploma", "doctorate", "hsc", "ssc", "cbse", "icse", "12th", "10th",
+            "associate's", "b.com", "bcom", "m.com", "mcom", "degree");
+
+    private static final Set<String> INSTITUTION_WORDS = Set.of(
+            "university", "college", "institute", "school", "academy", "polytechnic", "iit", "nit", "iiit", "vidyalaya");
+
+    private static final Pattern PART_SEPARATOR = Pattern.compile("\\s+[|•·@–—-]\\s+|,\\s+|\\s+at\\s+|\\t");
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("[,;|•·\\t]|\\s{3,}");
+
+    private static final int MAX_LIST_ITEM_LENGTH = 40;
+
+    private ResumeImportParser() {
+    }
+
+    public static Resume parse(String text) {
+        return new State().parse(text);
+    }
+
+    /**
+     * Parse state for one resume, the parser itself is stateless.
+     */
+    private static class State {
+
+        private final Resume.ProfileInfo profile = new Resume.ProfileInfo();
+        private final Resume.ContactInfo contact = new Resume.ContactInfo();
+        private final List<Resume.WorkExperience> experience = new ArrayList<>();
+        private final List<Resume.Education> education = new ArrayList<>();
+        private final List<Resume.Skill> skills = new ArrayList<>();
+        private final List<Resume.Project> projects = new ArrayList<>();
+        private final List<Resume.Certification> certifications = new ArrayList<>();
+        private final List<Resume.Language> languages = new ArrayList<>();
+        private final List<String> interests = new ArrayList<>();
+        private final Set<String> seenListItems = new HashSet<>();
+
+        private final StringBuilder summary = new StringBuilder();
+        private StringBuilder description;
+        private boolean blankSinceLastLine;
+
+        private Section section = Section.CONTACT;
+
+        private Resume parse(String text) {
+            //Step 1: walk the lines once, each section has its own handler
+            int lineStart = 0;
+            int length = text.length();
+            while (lineStart < length) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                if (lineEnd < 0) {
+                    lineEnd = length;
+                }
+                line(text.substring(lineStart, lineEnd).strip());
+                lineStart = lineEnd + 1;
+            }
+            closeEntry();
+
+            //Step 2: assemble the resume, summary and description text goes in as typed in the editor
+            profile.setSummary(summary.toString().strip());
+            return Resume.builder()
+                    .profileInfo(profile)
+                    .contactInfo(contact)
+                    .workExperience(experience)
+                    .education(education)
+                    .skills(skills)
+                    .projects(projects)
+                    .certifications(certifications)
+                    .languages(languages)
+                    .interests(interests)
+                    .build();
+        }
+
+        private void line(String line) {
+            if (line.isEmpty()) {
+                blankSinceLastLine = true;
+                return;
+            }
+            Section heading = ResumeSections.headingSection(line);
+            if (heading != null) {
+                closeEntry();
+                section = heading;
+                blankSinceLastLine = false;
+                return;
+            }
+
+            switch (section) {
+                case CONTACT -> contactLine(line);
+                case SUMMARY -> summary.append(summary.isEmpty() ? "" : " ").append(line);
+                case EXPERIENCE -> experienceLine(line);
+                case EDUCATION -> educationLine(line);
+                case SKILLS -> listLine(line, name -> skills.add(new Resume.Skill(name, null)));
+                case PROJECTS -> projectLine(line);
+                case CERTIFICATIONS -> certificationLine(line);
+                case LANGUAGES -> listLine(line, name -> languages.add(new Resume.Language(name, null)));
+                case INTERESTS -> listLine(line, interests::add);
+                default -> {
+                    // Awards, publications and the like have no place in the editor
+                }
+            }
+            blankSinceLastLine = false;
+        }
+
+        private void contactLine(String line) {
+            boolean matched = false;
+            Matcher email = EMAIL.matcher(line);
+            if (contact.getEmail() == null && email.find()) {
+                contact.setEmail(email.group());
+                line = line.substring(0, email.start()) + " " + line.substring(email.end());
+                matched = true;
+            }
+            Matcher phone = PHONE.matcher(line);
+            if (contact.getPhone() == null && phone.find()) {
+                contact.setPhone(phone.group().strip());
+                line = line.substring(0, phone.start()) + " " + line.substring(phone.end());
+                matched = true;
+            }
+            for (String link : links(line)) {
+                String lower = link.toLowerCase(Locale.ROOT);
+                if (lower.contains("linkedin.")) {
+                    contact.setLinkedin(link);
+                } else if (lower.contains("github.")) {
+                    contact.setGithub(link);
+                } else if (contact.getWebsite() == null) {
+                    contact.setWebsite(link);
+                }
+                line = line.replace(link, " ");
+                matched = true;
+            }
+
+            // Whatever is left of a details line may hold the location
+            for (String part : line.split("[|•·]")) {
+                String candidate = part.strip();
+                if (contact.getLocation() == null && LOCATION.matcher(candidate).matches()) {
+                    contact.setLocation(candidate);
+                    matched = true;
+                }
+            }
+            if (matched) {
+                return;
+            }
+
+            // The first plain lines of the header are the name and the designation
+            if (profile.getFullName() == null && words(line) <= 5) {
+                profile.setFullName(line);
+            } else if (profile.getDesignation() == null && words(line) <= 8) {
+                profile.setDesignation(line);
+            } else {
+                summary.append(summary.isEmpty() ? "" : " ").append(line);
+            }
+        }
+
+        private void experienceLine(String line) {
+            Resume.WorkExperience current = experience.isEmpty() ? null : experience.get(experience.size() - 1);
+            if (isBullet(line)) {
+                if (current == null) {
+                    current = newExperience();
+                }
+                bullet(stripBullet(line));
+                return;
+            }
+
+            Matcher range = DATE_RANGE.matcher(line);
+            boolean hasRange = range.find();
+            boolean startsEntry = current == null || hasRange && (hasDescription() || current.getStartDate() != null)
+                    || hasDescription() && (blankSinceLastLine || looksLikeHeader(line, ROLE_WORDS));
+            if (!startsEntry && current.getRole() != null && current.getCompany() != null && !hasRange) {
+                // A wrapped bullet point
+                continueBullet(line);
+                return;
+            }
+            if (startsEntry) {
+                current = newExperience();
+            }
+
+            String header = line;
+            if (hasRange) {
+                current.setStartDate(normalizeDate(range.group(1)));
+                current.setEndDate(normalizeDate(range.group(3)));
+                header = (line.substring(0, range.start()) + " " + line.substring(range.end())).strip();
+            }
+            for (String part : PART_SEPARATOR.split(header)) {
+                String value = trimPunctuation(part);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (current.getRole() == null && containsWord(value, ROLE_WORDS)) {
+                    current.setRole(value);
+                } else if (current.getCompany() == null) {
+                    current.setCompany(value);
+                } else if (current.getRole() == null) {
+                    current.setRole(value);
+                }
+            }
+        }
+
+        private void educationLine(String line) {
+            Resume.Education current = education.isEmpty() ? null : education.get(education.size() - 1);
+            Matcher range = DATE_RANGE.matcher(line);
+            boolean hasRange = range.find();
+            boolean complete = current != null && current.getDegree() != null && current.getInstitution() != null;
+            if (current == null || complete && (hasRange ? current.getStartDate() != null : !isBullet(line))
+                    || blankSinceLastLine && current.getDegree() != null) {
+                current = new Resume.Education();
+                education.add(current);
+            }
+
+            String rest = stripBullet(line);
+            if (hasRange) {
+                current.setStartDate(normalizeDate(range.group(1)));
+                current.setEndDate(normalizeDate(range.group(3)));
+                rest = (line.substring(0, range.start()) + " " + line.substring(range.end())).strip();
+            } else {
+                Matcher year = SINGLE_YEAR.matcher(rest);
+                if (year.find()) {
+                    // A single year is the graduation year
+                    current.setEndDate(year.group(1) + "-01");
+                    rest = (rest.substring(0, year.start()) + " " + rest.substring(year.end())).strip();
+                }
+            }
+            // Trailing parts belong to the field before them: "B.Tech, Computer Science" or "NIT, Trichy"
+            boolean lastWasInstitution = false;
+            for (String part : PART_SEPARATOR.split(rest)) {
+                String value = trimPunctuation(part);
+                if (value.isEmpty() || value.toLowerCase(Locale.ROOT).startsWith("cgpa")
+                        || value.toLowerCase(Locale.ROOT).startsWith("gpa") || value.endsWith("%")) {
+                    continue;
+                }
+                if (current.getInstitution() == null && containsWord(value, INSTITUTION_WORDS)) {
+                    current.setInstitution(value);
+                    lastWasInstitution = true;
+                } else if (current.getDegree() == null && (containsWord(value, DEGREE_WORDS) || current.getInstitution() != null)) {
+                    current.setDegree(value);
+                    lastWasInstitution = false;
+                } else if (current.getInstitution() == null) {
+                    current.setInstitution(value);
+                    lastWasInstitution = true;
+                } else if (lastWasInstitution) {
+                    current.setInstitution(current.getInstitution() + ", " + value);
+                } else if (current.getDegree() != null && !current.getDegree().contains(value)) {
+                    current.setDegree(current.getDegree() + ", " + value);
+                }
+            }
+        }
+
+        private void projectLine(String line) {
+            Resume.Project current = projects.isEmpty() ? null : projects.get(projects.size() - 1);
+            if (isBullet(line) && current != null && description != null) {
+                bullet(stripBullet(line));
+                return;
+            }
+            if (current != null && hasDescription() && !blankSinceLastLine && !looksLikeProjectTitle(line)) {
+                continueBullet(line);
+                return;
+            }
+            if (current == null || hasDescription() || current.getTitle() != null) {
+                closeEntry();
+                current = new Resume.Project();
+                projects.add(current);
+                description = new StringBuilder();
+            }
+
+            // Links first, then "Title - what it does" or "Title: what it does"
+            String rest = stripBullet(line);
+            List<String> links = links(rest);
+            for (String link : links) {
+                if (link.toLowerCase(Locale.ROOT).contains("github.")) {
+                    current.setGithub(link);
+                } else if (current.getLiveDemo() == null) {
+                    current.setLiveDemo(link);
+                }
+                rest = rest.replace(link, "");
+            }
+            if (!links.isEmpty()) {
+                rest = rest.replaceAll("\\(\\s*[|,]?\\s*\\)", "").strip();
+            }
+
+            int split = indexOfAny(rest, " - ", " – ", " — ", ": ", " | ");
+            if (split > 0) {
+                current.setTitle(trimPunctuation(rest.substring(0, split)));
+                bullet(trimPunctuation(rest.substring(split + (rest.charAt(split) == ':' ? 1 : 2))));
+            } else {
+                current.setTitle(trimPunctuation(rest));
+            }
+        }
+
+        private void certificationLine(String line) {
+            String rest = stripBullet(line);
+            Resume.Certification certification = new Resume.Certification();
+            Matcher year = SINGLE_YEAR.matcher(rest);
+            if (year.find()) {
+                certification.setYear(year.group(1));
+                rest = (rest.substring(0, year.start()) + " " + rest.substring(year.end())).strip();
+            }
+            int split = indexOfAny(rest, " - ", " – ", " — ", " | ", ", ", " by ");
+            if (split > 0) {
+                certification.setTitle(trimPunctuation(rest.substring(0, split)));
+                certification.setIssuer(trimPunctuation(rest.substring(split).replaceFirst("^\\s*(-|–|—|\\||,|by)\\s*", "")));
+            } else {
+                certification.setTitle(trimPunctuation(rest));
+            }
+            if (!certification.getTitle().isEmpty()) {
+                certifications.add(certification);
+            }
+        }
+
+        private void listLine(String line, Consumer<String> sink) {
+            // "Languages: Java, Python" lists the items after the label
+            String rest = stripBullet(line);
+            int colon = rest.indexOf(':');
+            if (colon > 0 && colon < 30) {
+                rest = rest.substring(colon + 1);
+            }
+            for (String item : LIST_SEPARATOR.split(rest)) {
+                String value = trimPunctuation(item);
+                if (!value.isEmpty() && value.length() <= MAX_LIST_ITEM_LENGTH
+                        && seenListItems.add(section + "|" + value.toLowerCase(Locale.ROOT))) {
+                    sink.accept(value);
+                }
+            }
+        }
+
+        private Resume.WorkExperience newExperience() {
+            closeEntry();
+            Resume.WorkExperience entry = new Resume.WorkExperience();
+            experience.add(entry);
+            description = new StringBuilder();
+            return entry;
+        }
+
+        private boolean hasDescription() {
+            return description != null && !description.isEmpty();
+        }
+
+        private void bullet(String text) {
+            if (description == null) {
+                description = new StringBuilder();
+            }
+            if (!text.isEmpty()) {
+                description.append(description.isEmpty() ? "" : "\n").append(text);
+            }
+        }
+
+        private void continueBullet(String text) {
+            if (description == null || description.isEmpty()) {
+                bullet(text);
+            } else {
+                description.append(' ').append(text);
+            }
+        }
+
+        /**
+         * Writes the collected bullet points into the entry they belong to.
+         */
+        private void closeEntry() {
+            if (description == null) {
+                return;
+            }
+            String text = description.toString();
+            if (section == Section.EXPERIENCE && !experience.isEmpty()) {
+                experience.get(experience.size() - 1).setDescription(text);
+            } else if (section == Section.PROJECTS && !projects.isEmpty()) {
+                projects.get(projects.size() - 1).setDescription(text);
+            }
+            description = null;
+        }
+    }
+
+    /**
+     * Turns "Jan 2021", "01/2021", "2021" or "present" into the editor's {@code YYYY-MM}, present becomes empty.
+     */
+    static String normalizeDate(String date) {
+        String value = date.strip().toLowerCase(Locale.ROOT);
+        Matcher monthYear = MONTH_YEAR.matcher(value);
+        if (monthYear.find()) {
+            return year(monthYear.group(2)) + "-" + MONTHS.get(monthYear.group(1).substring(0, 3));
+        }
+        Matcher numeric = NUMERIC_DATE.matcher(value);
+        if (numeric.matches()) {
+            boolean yearFirst = numeric.group(1).length() == 4;
+            String year = yearFirst ? numeric.group(1) : numeric.group(2);
+            String month = yearFirst ? numeric.group(2) : numeric.group(1);
+            return year + "-" + (month.length() == 1 ? "0" + month : month);
+        }
+        if (value.length() == 4 && Character.isDigit(value.charAt(0))) {
+            return value + "-01";
+        }
+        return "";
+    }
+
+    private static String year(String year) {
+        return year.length() == 2 ? "20" + year : year;
+    }
+
+    /**
+     * Links in a line. A bare name with a domain ending ("Socket.io", "Node.js") only counts with a scheme,
+     * "www." or a path, or when it is a profile host.
+     */
+    private static List<String> links(String line) {
+        List<String> links = new ArrayList<>(2);
+        Matcher url = URL.matcher(line);
+        while (url.find()) {
+            String link = url.group();
+            String lower = link.toLowerCase(Locale.ROOT);
+            if (url.group(1) != null || url.group(2) != null || url.group(5) != null
+                    || lower.contains("linkedin.") || lower.contains("github.")) {
+                links.add(link);
+            }
+        }
+        return links;
+    }
+
+    private static boolean isBullet(String line) {
+        return BULLET_CHARS.indexOf(line.charAt(0)) >= 0;
+    }
+
+    private static String stripBullet(String line) {
+        int start = 0;
+        while (start < line.length() && (BULLET_CHARS.indexOf(line.charAt(start)) >= 0 || line.charAt(start) == ' ')) {
+            start++;
+        }
+        return line.substring(start);
+    }
+
+    private static boolean looksLikeHeader(String line, Set<String> words) {
+        return words(line) <= 8 && containsWord(line, words);
+    }
+
+    private static boolean looksLikeProjectTitle(String line) {
+        // "ShopEasy", or a short capitalised name before "Name - what it does"
+        if (!Character.isUpperCase(line.charAt(0))) {
+            return false;
+        }
+        int split = indexOfAny(line, " - ", " – ", " — ", ": ", " | ");
+        return words(split > 0 ? line.substring(0, split) : line) <= (split > 0 ? 4 : 6) && !line.endsWith(".");
+    }
+
+    private static boolean containsWord(String text, Set<String> words) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isWordChar(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isWordChar(text.charAt(i))) {
+                i++;
+            }
+            if (i > start && words.contains(text.substring(start, i).toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '\'' || c == '-';
+    }
+
+    private static int words(String line) {
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < line.length(); i++) {
+            boolean space = Character.isWhitespace(line.charAt(i));
+            if (!space && !inWord) {
+                count++;
+            }
+            inWord = !space;
+        }
+        return count;
+    }
+
+    private static int indexOfAny(String text, String... separators) {
+        int best = -1;
+        for (String separator : separators) {
+            int index = text.indexOf(separator);
+            if (index > 0 && (best < 0 || index < best)) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    private static String trimPunctuation(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && " ,;:|-–—()".indexOf(value.charAt(start)) >= 0) {
+            start++;
+        }
+        while (end > start && " ,;:|-–—(".indexOf(value.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        // Keep a closing parenthesis only when it closes something
+        String trimmed = value.substring(start, end);
+        if (trimmed.endsWith(")") && trimmed.indexOf('(') < 0) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).strip();
+        }
+        return trimmed;
+    }
+}
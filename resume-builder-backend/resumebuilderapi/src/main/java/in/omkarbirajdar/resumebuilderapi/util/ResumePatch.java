@@ -0,0 +1,238 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumePatchOperation;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates a JSON Merge Patch (RFC 7396) or a list of {@link ResumePatchOperation}s into one Mongo
+ * {@link Update}, so an edit writes only the fields it touches. Paths look like {@code profileInfo.summary}
+ * or {@code workExperience[2].role} and are checked against the {@link Resume} classes, values are converted
+ * to the field's type, so a patch can neither reach owner, version or audit fields nor store a shape the editor
+ * cannot read. Unknown paths, values of the wrong shape and overlapping operations are rejected with an
+ * {@link IllegalArgumentException}.
+ */
+public class ResumePatch {
+
+    private static final int MAX_OPERATIONS = 200;
+    private static final Set<String> PROTECTED_FIELDS = Set.of("id", "userId", "version", "createdAt", "updatedAt");
+    private static final Pattern SEGMENT = Pattern.compile("([A-Za-z]+)(?:\\[(\\d{1,4})])?");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Map<Class<?>, Map<String, Field>> fieldsByClass = new ConcurrentHashMap<>();
+
+    private final Update update = new Update();
+    private final List<String> paths = new ArrayList<>();
+    private final List<String> requiredElements = new ArrayList<>();
+
+    private ResumePatch() {
+    }
+
+    private record Target(String path, Type type, boolean element) {
+    }
+
+    public static ResumePatch fromMergePatch(JsonNode patch) {
+        if (patch == null || !patch.isObject() || patch.isEmpty()) {
+            throw new IllegalArgumentException("Merge patch must be a non-empty JSON object");
+        }
+        ResumePatch resumePatch = new ResumePatch();
+        resumePatch.merge(patch, "");
+        resumePatch.validate();
+        return resumePatch;
+    }
+
+    public static ResumePatch fromOperations(List<ResumePatchOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Patch contains no operations");
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("Patch may contain at most " + MAX_OPERATIONS + " operations");
+        }
+        ResumePatch resumePatch = new ResumePatch();
+        for (ResumePatchOperation operation : operations) {
+            Target target = resolve(operation.getPath());
+            switch (String.valueOf(operation.getOp()).toLowerCase()) {
+                case "set", "replace" -> resumePatch.set(target, operation.getValue());
+                case "append", "push" -> resumePatch.append(target, operation.getValue());
+                case "remove", "unset" -> resumePatch.remove(target);
+                default -> throw new IllegalArgumentException("Unsupported operation " + operation.getOp());
+            }
+        }
+        resumePatch.validate();
+        return resumePatch;
+    }
+
+    public Update getUpdate() {
+        return update;
+    }
+
+    /**
+     * Array elements addressed by index, the update must only apply when they exist, Mongo would otherwise
+     * pad the array with nulls.
+     */
+    public List<String> getRequiredElements() {
+        return requiredElements;
+    }
+
+    private void merge(JsonNode patch, String prefix) {
+        patch.properties().forEach(entry -> {
+            Target target = resolve(prefix + entry.getKey());
+            JsonNode value = entry.getValue();
+            if (value.isNull()) {
+                remove(target);
+            } else if (value.isObject() && isResumeClass(rawClass(target.type()))) {
+                // Objects are merged field by field, arrays and values are replaced
+                merge(value, target.path() + ".");
+            } else {
+                set(target, value);
+            }
+        });
+    }
+
+    private void set(Target target, JsonNode value) {
+        update.set(target.path(), convert(value, target));
+        paths.add(target.path());
+    }
+
+    private void append(Target target, JsonNode value) {
+        Type elementType = elementType(target.type());
+        if (elementType == null) {
+            throw new IllegalArgumentException(target.path() + " is not a list");
+        }
+        Target element = new Target(target.path(), elementType, true);
+        List<Object> values = new ArrayList<>();
+        if (value != null && value.isArray() && elementType(elementType) == null) {
+            value.forEach(node -> values.add(convert(node, element)));
+        } else {
+            values.add(convert(value, element));
+        }
+        update.push(target.path()).each(values.toArray());
+        paths.add(target.path());
+    }
+
+    private void remove(Target target) {
+        if (target.element()) {
+            throw new IllegalArgumentException("Remove list elements by setting the whole list, not " + target.path());
+        }
+        update.unset(target.path());
+        paths.add(target.path());
+    }
+
+    private static Object convert(JsonNode value, Target target) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        try {
+            JavaType javaType = objectMapper.getTypeFactory().constructType(target.type());
+            return objectMapper.convertValue(value, javaType);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + target.path() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maps an editor path onto the Mongo path and the Java type stored there.
+     */
+    private static Target resolve(String path) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("Path is required");
+        }
+        Type current = Resume.class;
+        StringBuilder mongoPath = new StringBuilder();
+        boolean element = false;
+        for (String segment : path.split("\\.", -1)) {
+            Matcher matcher = SEGMENT.matcher(segment);
+            Class<?> owner = rawClass(current);
+            if (!matcher.matches() || !isResumeClass(owner)) {
+                throw new IllegalArgumentException("Invalid path " + path);
+            }
+            String name = matcher.group(1);
+            Field field = fields(owner).get(name);
+            if (field == null || (owner == Resume.class && PROTECTED_FIELDS.contains(name))) {
+                throw new IllegalArgumentException("Unknown or read-only field in path " + path);
+            }
+            current = field.getGenericType();
+            mongoPath.append(mongoPath.isEmpty() ? "" : ".").append(name);
+            element = false;
+
+            if (matcher.group(2) != null) {
+                current = elementType(current);
+                if (current == null) {
+                    throw new IllegalArgumentException(name + " is not a list in path " + path);
+                }
+                mongoPath.append('.').append(Integer.parseInt(matcher.group(2)));
+                element = true;
+            }
+        }
+        return new Target(mongoPath.toString(), current, element);
+    }
+
+    private void validate() {
+        for (int i = 0; i < paths.size(); i++) {
+            for (int j = 0; j < paths.size(); j++) {
+                String a = paths.get(i);
+                String b = paths.get(j);
+                if (i != j && (a.equals(b) || b.startsWith(a + "."))) {
+                    throw new IllegalArgumentException("Operations on " + a + " and " + b + " overlap");
+                }
+            }
+        }
+        // Every indexed element the update writes into has to exist already
+        for (String path : paths) {
+            String[] segments = path.split("\\.");
+            StringBuilder prefix = new StringBuilder();
+            for (String segment : segments) {
+                if (!prefix.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                    requiredElements.add(prefix + "." + segment);
+                }
+                prefix.append(prefix.isEmpty() ? "" : ".").append(segment);
+            }
+        }
+    }
+
+    private static Map<String, Field> fields(Class<?> type) {
+        return fieldsByClass.computeIfAbsent(type, key -> {
+            Map<String, Field> fields = new HashMap<>();
+            for (Field field : key.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    fields.put(field.getName(), field);
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static boolean isResumeClass(Class<?> type) {
+        return type == Resume.class || type.getEnclosingClass() == Resume.class;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            return (Class<?>) parameterized.getRawType();
+        }
+        return (Class<?>) type;
+    }
+
+    private static Type elementType(Type type) {
+        if (type instanceof ParameterizedType parameterized && List.class.isAssignableFrom(rawClass(type))) {
+            return parameterized.getActualTypeArguments()[0];
+        }
+        return null;
+    }
+}
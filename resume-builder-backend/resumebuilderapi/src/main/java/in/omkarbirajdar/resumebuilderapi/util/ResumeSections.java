@@ -0,0 +1,117 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits plain resume text into sections by recognising common heading lines.
+ * Everything before the first heading is treated as the contact header.
+ */
+public class ResumeSections {
+
+    public enum Section {
+        CONTACT, SUMMARY, EXPERIENCE, EDUCATION, SKILLS, PROJECTS, CERTIFICATIONS, LANGUAGES, INTERESTS, OTHER
+    }
+
+    public record Block(Section section, String heading, String text) {
+    }
+
+    private static final int MAX_HEADING_LENGTH = 40;
+
+    private static final Map<String, Section> HEADINGS = new HashMap<>();
+
+    static {
+        register(Section.CONTACT, "contact", "contact information", "contact info", "contact details", "personal details", "personal information");
+        register(Section.SUMMARY, "summary", "professional summary", "career summary", "profile", "professional profile",
+                "objective", "career objective", "about", "about me");
+        register(Section.EXPERIENCE, "experience", "work experience", "professional experience", "employment",
+                "employment history", "work history", "career history", "internships", "internship", "experience & internships");
+        register(Section.EDUCATION, "education", "academic background", "academics", "education details",
+                "educational qualifications", "qualifications");
+        register(Section.SKILLS, "skills", "technical skills", "key skills", "core skills", "core competencies",
+                "competencies", "technologies", "tech stack", "skills & tools", "tools & technologies");
+        register(Section.PROJECTS, "projects", "personal projects", "academic projects", "key projects", "project experience");
+        register(Section.CERTIFICATIONS, "certifications", "certificates", "certification", "licenses & certifications", "courses");
+        register(Section.LANGUAGES, "languages", "language proficiency");
+        register(Section.INTERESTS, "interests", "hobbies", "hobbies & interests", "interests & hobbies");
+        register(Section.OTHER, "achievements", "awards", "honors", "honors & awards", "publications", "activities",
+                "extracurricular activities", "volunteering", "volunteer experience", "additional information");
+    }
+
+    private ResumeSections() {
+    }
+
+    private static void register(Section section, String... headings) {
+        for (String heading : headings) {
+            HEADINGS.put(heading, section);
+        }
+    }
+
+    /**
+     * Returns the section a line introduces, or {@code null} when the line is not a heading.
+     */
+    public static Section headingSection(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_HEADING_LENGTH) {
+            return null;
+        }
+
+        // Drop decorations such as "SKILLS:" or "— Projects —"
+        int start = 0;
+        int end = trimmed.length();
+        while (start < end && !Character.isLetter(trimmed.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isLetter(trimmed.charAt(end - 1))) {
+            end--;
+        }
+        if (start >= end) {
+            return null;
+        }
+
+        String normalized = trimmed.substring(start, end)
+                .toLowerCase(Locale.ROOT)
+                .replace(" and ", " & ")
+                .replaceAll("\\s+", " ");
+        return HEADINGS.get(normalized);
+    }
+
+    public static List<Block> split(String text) {
+        List<Block> blocks = new ArrayList<>();
+        Section current = Section.CONTACT;
+        String heading = null;
+        StringBuilder body = new StringBuilder();
+
+        int lineStart = 0;
+        int length = text.length();
+        while (lineStart <= length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            String line = text.substring(lineStart, lineEnd);
+
+            Section section = headingSection(line);
+            if (section != null) {
+                addBlock(blocks, current, heading, body);
+                current = section;
+                heading = line.trim();
+                body.setLength(0);
+            } else {
+                body.append(line).append('\n');
+            }
+            lineStart = lineEnd + 1;
+        }
+        addBlock(blocks, current, heading, body);
+        return blocks;
+    }
+
+    private static void addBlock(List<Block> blocks, Section section, String heading, StringBuilder body) {
+        if (heading != null || !body.toString().isBlank()) {
+            blocks.add(new Block(section, heading, body.toString()));
+        }
+    }
+}
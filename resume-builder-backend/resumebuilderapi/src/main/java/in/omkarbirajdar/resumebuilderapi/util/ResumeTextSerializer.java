@@ -0,0 +1,267 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.util.ResumeSections.Section;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Renders a stored {@link Resume} as compact plain text with one heading per section, in the layout
+ * {@link ResumeSections} recognises, so editor resumes can be scored without exporting and re-parsing a PDF.
+ */
+public class ResumeTextSerializer {
+
+    private static final String BULLET_CHARS = "•▪●◦■□➢➤►*·-";
+
+    private static final Map<Section, String> HEADINGS = new EnumMap<>(Section.class);
+
+    static {
+        // The contact header comes first, so serialize() never writes this one
+        HEADINGS.put(Section.CONTACT, "Contact");
+        HEADINGS.put(Section.SUMMARY, "Summary");
+        HEADINGS.put(Section.EXPERIENCE, "Experience");
+        HEADINGS.put(Section.EDUCATION, "Education");
+        HEADINGS.put(Section.SKILLS, "Skills");
+        HEADINGS.put(Section.PROJECTS, "Projects");
+        HEADINGS.put(Section.CERTIFICATIONS, "Certifications");
+        HEADINGS.put(Section.LANGUAGES, "Languages");
+        HEADINGS.put(Section.INTERESTS, "Interests");
+    }
+
+    private ResumeTextSerializer() {
+    }
+
+    /**
+     * One independently scorable piece of a resume: the contact header, the summary, a single experience,
+     * education, project or certification entry, or a whole list section such as skills.
+     */
+    public record Fragment(Section section, String text) {
+    }
+
+    public static String serialize(Resume resume) {
+        return serialize(fragments(resume));
+    }
+
+    /**
+     * Joins fragments into resume text, writing a heading whenever the section changes.
+     */
+    public static String serialize(List<Fragment> fragments) {
+        StringBuilder text = new StringBuilder(2048);
+        Section current = Section.CONTACT;
+        for (Fragment fragment : fragments) {
+            if (fragment.section() != current) {
+                current = fragment.section();
+                text.append(HEADINGS.get(current)).append('\n');
+            }
+            text.append(fragment.text());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Like {@link #serialize(List)}, but the contact header gets a heading too, for prompts that refer to
+     * sections by their heading.
+     */
+    public static String serializeWithHeadings(List<Fragment> fragments) {
+        StringBuilder text = new StringBuilder(2048);
+        Section current = null;
+        for (Fragment fragment : fragments) {
+            if (fragment.section() != current) {
+                current = fragment.section();
+                text.append(HEADINGS.get(current)).append('\n');
+            }
+            text.append(fragment.text());
+        }
+        return text.toString();
+    }
+
+    /**
+     * The heading a section is written under.
+     */
+    public static String heading(Section section) {
+        return HEADINGS.get(section);
+    }
+
+    /**
+     * Splits a resume into fragments in document order. Blank entries are left out.
+     */
+    public static List<Fragment> fragments(Resume resume) {
+        List<Fragment> fragments = new ArrayList<>();
+
+        //Step 1: contact header, everything before the first heading
+        StringBuilder header = new StringBuilder();
+        Resume.ProfileInfo profile = resume.getProfileInfo();
+        if (profile != null) {
+            line(header, profile.getFullName());
+            line(header, profile.getDesignation());
+        }
+        Resume.ContactInfo contact = resume.getContactInfo();
+        if (contact != null) {
+            line(header, join(" | ", contact.getEmail(), contact.getPhone(), contact.getLocation(),
+                    contact.getLinkedin(), contact.getGithub(), contact.getWebsite()));
+        }
+        add(fragments, Section.CONTACT, header);
+
+        //Step 2: the summary, then one fragment per entry or list
+        if (profile != null && hasText(profile.getSummary())) {
+            StringBuilder summary = new StringBuilder();
+            paragraph(summary, profile.getSummary());
+            add(fragments, Section.SUMMARY, summary);
+        }
+
+        entries(fragments, Section.EXPERIENCE, resume.getWorkExperience(), (experience, out) -> {
+            line(out, join(", ", experience.getRole(), experience.getCompany())
+                    + dates(experience.getStartDate(), experience.getEndDate()));
+            bullets(out, experience.getDescription());
+        });
+
+        entries(fragments, Section.EDUCATION, resume.getEducation(), (education, out) ->
+                line(out, join(", ", education.getDegree(), education.getInstitution())
+                        + dates(education.getStartDate(), education.getEndDate())));
+
+        list(fragments, Section.SKILLS, resume.getSkills(), Resume.Skill::getName);
+
+        entries(fragments, Section.PROJECTS, resume.getProjects(), (project, out) -> {
+            String links = join(" | ", project.getGithub(), project.getLiveDemo());
+            line(out, clean(project.getTitle()) + (links.isEmpty() ? "" : " (" + links + ")"));
+            bullets(out, project.getDescription());
+        });
+
+        entries(fragments, Section.CERTIFICATIONS, resume.getCertifications(), (certification, out) ->
+                line(out, join(", ", certification.getTitle(), certification.getIssuer())
+                        + (hasText(certification.getYear()) ? " (" + clean(certification.getYear()) + ")" : "")));
+
+        list(fragments, Section.LANGUAGES, resume.getLanguages(), Resume.Language::getName);
+        list(fragments, Section.INTERESTS, resume.getInterests(), Function.identity());
+
+        return fragments;
+    }
+
+    private interface ItemWriter<T> {
+        void write(T item, StringBuilder out);
+    }
+
+    private static <T> void entries(List<Fragment> fragments, Section section, List<T> items, ItemWriter<T> writer) {
+        if (items == null) {
+            return;
+        }
+        for (T item : items) {
+            if (item != null) {
+                StringBuilder text = new StringBuilder();
+                writer.write(item, text);
+                // Editors save placeholder entries with every field blank
+                add(fragments, section, text);
+            }
+        }
+    }
+
+    private static <T> void list(List<Fragment> fragments, Section section, List<T> items, Function<T, String> name) {
+        if (items == null) {
+            return;
+        }
+        String joined = join(", ", items.stream().filter(Objects::nonNull).map(name).toArray(String[]::new));
+        if (!joined.isEmpty()) {
+            fragments.add(new Fragment(section, joined + "\n"));
+        }
+    }
+
+    private static void add(List<Fragment> fragments, Section section, StringBuilder text) {
+        if (!text.isEmpty()) {
+            fragments.add(new Fragment(section, text.toString()));
+        }
+    }
+
+    private static void paragraph(StringBuilder text, String value) {
+        value.lines().forEach(rawLine -> line(text, rawLine));
+    }
+
+    private static void bullets(StringBuilder text, String description) {
+        if (description == null) {
+            return;
+        }
+        description.lines().forEach(rawLine -> {
+            String bullet = stripBullet(clean(rawLine));
+            if (!bullet.isEmpty()) {
+                text.append("- ").append(bullet).append('\n');
+            }
+        });
+    }
+
+    private static String stripBullet(String line) {
+        int start = 0;
+        while (start < line.length() && BULLET_CHARS.indexOf(line.charAt(start)) >= 0) {
+            start++;
+        }
+        return start == 0 ? line : line.substring(start).stripLeading();
+    }
+
+    private static String dates(String start, String end) {
+        String range = join(" - ", start, end);
+        return range.isEmpty() ? "" : " (" + range + ")";
+    }
+
+    private static void line(StringBuilder text, String value) {
+        String cleaned = clean(value);
+        if (!cleaned.isEmpty()) {
+            text.append(cleaned).append('\n');
+        }
+    }
+
+    private static String join(String separator, String... values) {
+        StringBuilder joined = new StringBuilder();
+        for (String value : values) {
+            String cleaned = clean(value);
+            if (!cleaned.isEmpty()) {
+                if (!joined.isEmpty()) {
+                    joined.append(separator);
+                }
+                joined.append(cleaned);
+            }
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Collapses runs of whitespace into single spaces and trims. Called for every field on every live
+     * rescore, so it avoids regex and returns the input itself when it is already clean.
+     */
+    private static String clean(String value) {
+        if (value == null) {
+            return "";
+        }
+        int length = value.length();
+        boolean dirty = length > 0 && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(length - 1)));
+        for (int i = 0; i < length && !dirty; i++) {
+            char c = value.charAt(i);
+            dirty = Character.isWhitespace(c) && (c != ' ' || Character.isWhitespace(value.charAt(i + 1)));
+        }
+        if (!dirty) {
+            return value;
+        }
+
+        StringBuilder cleaned = new StringBuilder(length);
+        boolean pendingSpace = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !cleaned.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    cleaned.append(' ');
+                    pendingSpace = false;
+                }
+                cleaned.append(c);
+            }
+        }
+        return cleaned.toString();
+    }
+
+    private static boolean hasText(String value) {
+        return !clean(value).isEmpty();
+    }
+}
@@ -0,0 +1,101 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Open-addressing String to int counter. Counts live in a primitive array, so counting words does not
+ * box an Integer per increment the way a {@code HashMap<String, Integer>} does.
+ */
+public class TermCounter {
+
+    private String[] keys;
+    private int[] counts;
+    private int size;
+    private int mask;
+
+    public TermCounter() {
+        this(64);
+    }
+
+    public TermCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new String[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int increment(String key) {
+        return add(key, 1);
+    }
+
+    public int add(String key, int delta) {
+        int slot = slotFor(key);
+        if (keys[slot] == null) {
+            keys[slot] = key;
+            size++;
+            counts[slot] = delta;
+            if (size * 2 > keys.length) {
+                resize();
+            }
+            return delta;
+        }
+        counts[slot] += delta;
+        return counts[slot];
+    }
+
+    public int get(String key) {
+        int slot = slotFor(key);
+        return keys[slot] == null ? 0 : counts[slot];
+    }
+
+    public boolean contains(String key) {
+        return keys[slotFor(key)] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(ObjIntConsumer<String> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    public void addAll(TermCounter other) {
+        other.forEach(this::add);
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    private int slotFor(String key) {
+        int h = key.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new String[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
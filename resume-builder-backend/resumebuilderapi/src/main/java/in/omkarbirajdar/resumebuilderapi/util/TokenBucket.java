@@ -0,0 +1,40 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import java.time.Duration;
+
+/**
+ * Token bucket that refills lazily on each call, so idle buckets cost nothing. Holds up to {@code capacity}
+ * tokens and gains one every {@code refillPeriod}.
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final long refillNanos;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, Duration refillPeriod) {
+        this.capacity = capacity;
+        this.refillNanos = refillPeriod.toNanos();
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return zero when a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public synchronized long tryConsume() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillNanos);
+        lastRefill = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * refillNanos);
+    }
+}
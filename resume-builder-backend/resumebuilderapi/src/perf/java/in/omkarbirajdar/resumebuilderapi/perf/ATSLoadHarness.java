@@ -0,0 +1,318 @@
+package in.omkarbirajdar.resumebuilderapi.perf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Drives {@code POST /api/ats/analyze} of a running instance with a corpus of PDF and DOCX resumes and
+ * reports throughput and p50/p95/p99 latency end to end and per ATS stage. Stage figures come from the
+ * {@code ats.stage.*} histograms on {@code /actuator/prometheus}, scraped before and after the run.
+ * <p>
+ * Start the application with the stub LLM so the run measures this service rather than Groq, and with
+ * admission limits above the planned concurrency, e.g.
+ * {@code --llm.provider=stub --ats.admission.max-concurrent=64 --ats.admission.user.burst=100000}, then
+ * <pre>
+ * mvn -Pperf test-compile exec:java@ats-load -Dats.load.args="--token &lt;jwt&gt; --requests 500 --concurrency 32"
+ * </pre>
+ * Options: {@code --url} (default http://localhost:8080), {@code --token} (comma separated JWTs, used round
+ * robin, or ATS_LOAD_TOKEN), {@code --corpus} (directory of .pdf/.docx files), {@code --requests},
+ * {@code --concurrency}, {@code --warmup}. Without a corpus every request gets its own generated resume so
+ * none is answered from the result cache; files of a corpus directory are cycled and repeat as cache hits.
+ */
+public class ATSLoadHarness {
+
+    private static final Pattern STAGE_SAMPLE = Pattern.compile(
+            "^(ats_stage_[a-z_]+?)_seconds_(bucket|count|sum)\\{([^}]*)}\\s+(\\S+)$");
+    private static final Pattern LE = Pattern.compile("le=\"([^\"]+)\"");
+
+    record Upload(String fileName, byte[] content) {
+    }
+
+    record Stage(TreeMap<Double, Double> buckets, double count, double sum) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI baseUrl = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        String[] tokens = options.getOrDefault("token", System.getenv().getOrDefault("ATS_LOAD_TOKEN", "")).split(",");
+        int requests = Integer.parseInt(options.getOrDefault("requests", "200"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        if (tokens[0].isBlank()) {
+            throw new IllegalArgumentException("Pass a JWT with --token or ATS_LOAD_TOKEN");
+        }
+
+        List<Upload> corpus = options.containsKey("corpus")
+                ? loadCorpus(Path.of(options.get("corpus")))
+                : syntheticCorpus(warmup + requests);
+        System.out.printf("Corpus: %d files, %d warmup and %d measured requests, concurrency %d%n%n",
+                corpus.size(), warmup, requests, concurrency);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        run(client, baseUrl, tokens, corpus, 0, warmup, concurrency);
+        Map<String, Stage> before = scrapeStages(client, baseUrl);
+
+        long start = System.nanoTime();
+        Result result = run(client, baseUrl, tokens, corpus, warmup, requests, concurrency);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        Map<String, Stage> after = scrapeStages(client, baseUrl);
+
+        report(result, elapsedSeconds, before, after);
+    }
+
+    record Result(long[] latenciesNanos, Map<String, LongAdder> statuses) {
+    }
+
+    private static Result run(HttpClient client, URI baseUrl, String[] tokens, List<Upload> corpus,
+                              int offset, int requests, int concurrency) throws InterruptedException {
+        long[] latencies = new long[requests];
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService workers = Executors.newFixedThreadPool(concurrency)) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                workers.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        Upload upload = corpus.get((offset + i) % corpus.size());
+                        long start = System.nanoTime();
+                        String status;
+                        try {
+                            status = String.valueOf(analyze(client, baseUrl, tokens[i % tokens.length], upload));
+                        } catch (Exception e) {
+                            status = e.getClass().getSimpleName();
+                        }
+                        latencies[i] = System.nanoTime() - start;
+                        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    }
+                });
+            }
+        }
+        return new Result(latencies, statuses);
+    }
+
+    private static int analyze(HttpClient client, URI baseUrl, String token, Upload upload) throws Exception {
+        String boundary = "----ats-load-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(upload.content().length + 256);
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + upload.fileName() + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(upload.content());
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/api/ats/analyze"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void report(Result result, double elapsedSeconds, Map<String, Stage> before, Map<String, Stage> after) {
+        long[] sorted = result.latenciesNanos().clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-22s %8s %10s %10s %10s %10s%n", "stage", "count", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        System.out.printf("%-22s %8d %10.1f %10.1f %10.1f %10.1f%n", "end to end (client)", sorted.length,
+                sorted.length / elapsedSeconds, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.95) / 1e6,
+                percentile(sorted, 0.99) / 1e6);
+
+        // Percentiles of a stage are interpolated within the histogram buckets the run added
+        after.forEach((name, stage) -> {
+            Stage previous = before.getOrDefault(name, new Stage(new TreeMap<>(), 0, 0));
+            double count = stage.count() - previous.count();
+            if (count <= 0) {
+                return;
+            }
+            TreeMap<Double, Double> delta = new TreeMap<>();
+            stage.buckets().forEach((le, cumulative) -> delta.put(le, cumulative - previous.buckets().getOrDefault(le, 0.0)));
+            System.out.printf("%-22s %8.0f %10.1f %10.1f %10.1f %10.1f%n", name.replace('_', '.'), count,
+                    count / elapsedSeconds, quantile(delta, count, 0.50) * 1e3, quantile(delta, count, 0.95) * 1e3,
+                    quantile(delta, count, 0.99) * 1e3);
+        });
+
+        System.out.printf("%nStatuses: %s%n", new TreeMap<>(result.statuses()));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double quantile(TreeMap<Double, Double> cumulativeBuckets, double count, double quantile) {
+        double rank = quantile * count;
+        double lowerBound = 0;
+        double lowerCount = 0;
+        for (Map.Entry<Double, Double> bucket : cumulativeBuckets.entrySet()) {
+            if (bucket.getValue() >= rank) {
+                if (bucket.getKey().isInfinite()) {
+                    return lowerBound;
+                }
+                double inBucket = bucket.getValue() - lowerCount;
+                return inBucket <= 0 ? bucket.getKey()
+                        : lowerBound + (bucket.getKey() - lowerBound) * (rank - lowerCount) / inBucket;
+            }
+            lowerBound = bucket.getKey();
+            lowerCount = bucket.getValue();
+        }
+        return lowerBound;
+    }
+
+    /**
+     * Sums the {@code ats_stage_*_seconds} histograms over all tag combinations, keyed by stage.
+     */
+    private static Map<String, Stage> scrapeStages(HttpClient client, URI baseUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/actuator/prometheus")).GET().build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+
+        Map<String, TreeMap<Double, Double>> buckets = new TreeMap<>();
+        Map<String, Double> counts = new HashMap<>();
+        Map<String, Double> sums = new HashMap<>();
+        for (String line : body.split("\n")) {
+            Matcher sample = STAGE_SAMPLE.matcher(line.strip());
+            if (!sample.matches()) {
+                continue;
+            }
+            String stage = sample.group(1);
+            double value = Double.parseDouble(sample.group(4));
+            switch (sample.group(2)) {
+                case "bucket" -> {
+                    Matcher le = LE.matcher(sample.group(3));
+                    if (le.find()) {
+                        double bound = "+Inf".equals(le.group(1)) ? Double.POSITIVE_INFINITY : Double.parseDouble(le.group(1));
+                        buckets.computeIfAbsent(stage, key -> new TreeMap<>()).merge(bound, value, Double::sum);
+                    }
+                }
+                case "count" -> counts.merge(stage, value, Double::sum);
+                default -> sums.merge(stage, value, Double::sum);
+            }
+        }
+
+        Map<String, Stage> stages = new TreeMap<>();
+        counts.forEach((stage, count) -> stages.put(stage,
+                new Stage(buckets.getOrDefault(stage, new TreeMap<>()), count, sums.getOrDefault(stage, 0.0))));
+        return stages;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static List<Upload> loadCorpus(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Upload> corpus = new ArrayList<>();
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.toLowerCase().endsWith(".pdf") || name.toLowerCase().endsWith(".docx")) {
+                    corpus.add(new Upload(name, Files.readAllBytes(file)));
+                }
+            }
+            if (corpus.isEmpty()) {
+                throw new IllegalArgumentException("No PDF or DOCX files in " + directory);
+            }
+            return corpus;
+        }
+    }
+
+    /**
+     * Alternating PDF and DOCX resumes of two to three pages, each with its own text.
+     */
+    private static List<Upload> syntheticCorpus(int size) throws IOException {
+        List<Upload> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<String> lines = resumeLines(i);
+            corpus.add(i % 2 == 0
+                    ? new Upload("resume-" + i + ".pdf", pdf(lines))
+                    : new Upload("resume-" + i + ".docx", docx(lines)));
+        }
+        return corpus;
+    }
+
+    private static List<String> resumeLines(int seed) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Candidate " + seed);
+        lines.add("candidate" + seed + "@example.com | +91 98765 " + String.format("%05d", seed % 100000) + " | Pune, India");
+        lines.add("PROFESSIONAL SUMMARY");
+        lines.add("Backend engineer with " + (seed % 12 + 1) + " years of experience building payment and search platforms.");
+        lines.add("WORK EXPERIENCE");
+        for (int job = 0; job < 4 + seed % 3; job++) {
+            lines.add("Senior Software Engineer, Company " + (seed * 7 + job) + " (Jan 20" + (10 + job) + " - Mar 20" + (12 + job) + ")");
+            for (int bullet = 0; bullet < 6; bullet++) {
+                lines.add("- Built service " + (seed + bullet) + " handling " + (bullet + 1) * 1000
+                        + " requests per second with Java, Spring Boot and MongoDB");
+            }
+        }
+        lines.add("EDUCATION");
+        lines.add("B.Tech Computer Science, University " + seed % 50 + " (2008 - 2012)");
+        lines.add("SKILLS");
+        lines.add("Java, Spring Boot, MongoDB, Kafka, Docker, Kubernetes, AWS, React");
+        return lines;
+    }
+
+    private static byte[] pdf(List<String> lines) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            int perPage = 45;
+            for (int from = 0; from < lines.size(); from += perPage) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    for (String line : lines.subList(from, Math.min(lines.size(), from + perPage))) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] docx(List<String> lines) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (String line : lines) {
+                document.createParagraph().createRun().setText(line);
+            }
+            document.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package in.omkarbirajdar.resumebuilderapi.perf;
+
+import in.omkarbirajdar.resumebuilderapi.service.ResumeTextExtractor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFHeader;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares the old XWPF DOM extraction with the streaming extractor on a corpus of DOCX files.
+ *
+ * <pre>
+ * mvn -Pperf test-compile exec:java -Dexec.mainClass=in.omkarbirajdar.resumebuilderapi.perf.DocxExtractionBenchmark \
+ *     -Dexec.args="/path/to/docx/corpus"
+ * </pre>
+ * Without an argument a synthetic corpus with headers and skill tables is generated.
+ */
+public class DocxExtractionBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    interface Extractor {
+        String extract(byte[] content) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<byte[]> corpus = args.length > 0 ? loadCorpus(Path.of(args[0])) : syntheticCorpus(40);
+        System.out.printf("Corpus: %d DOCX files%n%n", corpus.size());
+
+        ResumeTextExtractor streaming = new ResumeTextExtractor(new SimpleMeterRegistry(), 20000, 10,
+                Duration.ofSeconds(5), DataSize.ofMegabytes(16), DataSize.ofMegabytes(64), DataSize.ofMegabytes(32));
+
+        run("XWPF DOM (paragraphs only)", corpus, DocxExtractionBenchmark::domExtract);
+        run("StAX streaming", corpus, content -> streaming.extract(content, "resume.docx"));
+    }
+
+    private static void run(String name, List<byte[]> corpus, Extractor extractor) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (byte[] content : corpus) {
+                extractor.extract(content);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long chars = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            for (byte[] content : corpus) {
+                chars += extractor.extract(content).length();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        long documents = (long) MEASURED_ROUNDS * corpus.size();
+        System.out.printf("%-28s %8.3f ms/doc %10.1f KB allocated/doc %8d chars/doc%n",
+                name, elapsed / 1e6 / documents, allocated / 1024.0 / documents, chars / documents);
+    }
+
+    private static String domExtract(byte[] content) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(new ByteArrayInputStream(content))) {
+            StringBuilder text = new StringBuilder();
+            for (XWPFParagraph paragraph : document.getParagraphs()) {
+                text.append(paragraph.getText()).append("\n");
+            }
+            return text.toString();
+        }
+    }
+
+    private static List<byte[]> loadCorpus(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<byte[]> corpus = new ArrayList<>();
+            for (Path file : files.filter(p -> p.toString().toLowerCase().endsWith(".docx")).toList()) {
+                corpus.add(Files.readAllBytes(file));
+            }
+            return corpus;
+        }
+    }
+
+    private static List<byte[]> syntheticCorpus(int size) throws IOException {
+        List<byte[]> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            try (XWPFDocument document = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                XWPFHeader header = document.createHeaderFooterPolicy().createHeader(XWPFHeaderFooterPolicy.DEFAULT);
+                header.createParagraph().createRun().setText("Candidate " + i + " | candidate" + i + "@example.com | +91 98765 43210");
+
+                document.createParagraph().createRun().setText("PROFESSIONAL SUMMARY");
+                document.createParagraph().createRun().setText("Engineer with " + (i % 10 + 1) + " years of experience building web platforms.");
+                document.createParagraph().createRun().setText("WORK EXPERIENCE");
+                for (int job = 0; job < 3 + i % 4; job++) {
+                    document.createParagraph().createRun().setText("Software Engineer, Company " + job + " (20" + (10 + job) + " - 20" + (12 + job) + ")");
+                    for (int bullet = 0; bullet < 5; bullet++) {
+                        document.createParagraph().createRun().setText("Built and optimized service " + bullet
+                                + " handling " + (bullet + 1) * 1000 + " requests per second with Java and Spring Boot");
+                    }
+                }
+                document.createParagraph().createRun().setText("SKILLS");
+                XWPFTable skills = document.createTable(3, 3);
+                String[] names = {"Java", "Spring Boot", "MongoDB", "React", "Docker", "Kubernetes", "AWS", "Kafka", "SQL"};
+                for (int cell = 0; cell < names.length; cell++) {
+                    skills.getRow(cell / 3).getCell(cell % 3).setText(names[cell]);
+                }
+                document.write(out);
+                corpus.add(out.toByteArray());
+            }
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,292 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import in.omkarbirajdar.resumebuilderapi.document.ATSJob;
+import in.omkarbirajdar.resumebuilderapi.dto.ATSAnalysisResponse;
+import in.omkarbirajdar.resumebuilderapi.repository.ATSJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two job services share one MongoDB, the way two API instances share the {@code ats_jobs} collection, and
+ * compete for the same jobs. Each instance runs its claimed jobs only when the test says so, which lets the
+ * test expire a lease while the first owner is still holding the job.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ATSJobServiceIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMillis(500);
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+    private static ATSJobRepository jobRepository;
+
+    private final ATSService atsService = mock(ATSService.class);
+    private final ManualExecutor executorA = new ManualExecutor();
+    private final ManualExecutor executorB = new ManualExecutor();
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "ats_jobs_test");
+        jobRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(ATSJobRepository.class);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mongoTemplate.dropCollection(ATSJob.class);
+        when(atsService.extractText(any(), anyString())).thenReturn("resume text");
+        when(atsService.provisionalScore(anyString())).thenReturn(ATSAnalysisResponse.builder().overallScore(60).build());
+        when(atsService.analyzeText(anyString())).thenReturn(ATSAnalysisResponse.builder().overallScore(80).build());
+    }
+
+    private ATSJobService worker(String nodeId, ManualExecutor executor, int workers, int maxAttempts,
+                                 ATSAdmissionControl admissionControl) {
+        return new ATSJobService(atsService, executor, admissionControl, jobRepository, mongoTemplate,
+                nodeId, workers, LEASE, maxAttempts, 15);
+    }
+
+    private ATSJobService worker(String nodeId, ManualExecutor executor, int workers, int maxAttempts) {
+        return worker(nodeId, executor, workers, maxAttempts, admissionControl(8, 32));
+    }
+
+    private static ATSAdmissionControl admissionControl(int maxConcurrent, int maxQueue) {
+        return new ATSAdmissionControl(new SimpleMeterRegistry(), maxConcurrent, maxQueue, Duration.ofMillis(100),
+                Duration.ofSeconds(5), 100, Duration.ofSeconds(1), 1000);
+    }
+
+    private String submit(ATSJobService service, ManualExecutor executor) {
+        String jobId = service.submit("user-1", new byte[]{1, 2, 3}, "resume.pdf").getJobId();
+        // Drop the nudge, the test decides when each instance polls
+        executor.tasks.clear();
+        return jobId;
+    }
+
+    private static ATSJob stored(String jobId) {
+        return mongoTemplate.findById(jobId, ATSJob.class);
+    }
+
+    private static void waitForLeaseToExpire(String jobId) throws InterruptedException {
+        Instant expiresAt = stored(jobId).getLeaseExpiresAt();
+        long millis = Duration.between(Instant.now(), expiresAt).toMillis() + 50;
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    @Test
+    void eachJobIsClaimedByExactlyOneInstance() throws Exception {
+        ATSJobService a = worker("node-a", executorA, 20, 3);
+        ATSJobService b = worker("node-b", executorB, 20, 3);
+        for (int i = 0; i < 20; i++) {
+            submit(a, executorA);
+        }
+
+        //Step 1: both instances poll at the same time
+        CountDownLatch start = new CountDownLatch(1);
+        CompletableFuture<Void> pollA = CompletableFuture.runAsync(() -> awaitThen(start, a::pollForJobs));
+        CompletableFuture<Void> pollB = CompletableFuture.runAsync(() -> awaitThen(start, b::pollForJobs));
+        start.countDown();
+        CompletableFuture.allOf(pollA, pollB).get(10, TimeUnit.SECONDS);
+
+        //Step 2: every job went to one of them, once
+        List<ATSJob> jobs = mongoTemplate.findAll(ATSJob.class);
+        assertThat(executorA.tasks.size() + executorB.tasks.size()).isEqualTo(20);
+        assertThat(jobs).allSatisfy(job -> {
+            assertThat(job.getAttempts()).isEqualTo(1);
+            assertThat(job.getLeaseOwner()).isIn("node-a", "node-b");
+        });
+        assertThat(jobs.stream().filter(job -> job.getLeaseOwner().equals("node-a")).count())
+                .isEqualTo(executorA.tasks.size());
+    }
+
+    @Test
+    void anExpiredLeaseIsReclaimedAndTheFormerOwnerIsFenced() throws Exception {
+        ATSJobService a = worker("node-a", executorA, 1, 3);
+        ATSJobService b = worker("node-b", executorB, 1, 3);
+        String jobId = submit(a, executorA);
+
+        //Step 1: A claims the job and stalls in extraction
+        CountDownLatch extracting = new CountDownLatch(1);
+        CountDownLatch releaseExtraction = new CountDownLatch(1);
+        when(atsService.extractText(any(), anyString())).thenAnswer(invocation -> {
+            extracting.countDown();
+            releaseExtraction.await(10, TimeUnit.SECONDS);
+            return "stale text";
+        }).thenReturn("resume text");
+        a.pollForJobs();
+        CompletableFuture<Void> runA = CompletableFuture.runAsync(executorA::runNext);
+        assertThat(extracting.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stored(jobId).getStatus()).isEqualTo(ATSJobService.STATUS_EXTRACTING);
+
+        //Step 2: while A heartbeats, B cannot take the job
+        for (int i = 0; i < 4; i++) {
+            a.heartbeat();
+            b.pollForJobs();
+            Thread.sleep(LEASE.toMillis() / 2);
+        }
+        assertThat(executorB.tasks).isEmpty();
+        assertThat(stored(jobId).getLeaseOwner()).isEqualTo("node-a");
+
+        //Step 3: A misses its heartbeats, the lease runs out and B takes the job over
+        waitForLeaseToExpire(jobId);
+        b.pollForJobs();
+        assertThat(executorB.tasks).hasSize(1);
+        ATSJob takenOver = stored(jobId);
+        assertThat(takenOver.getLeaseOwner()).isEqualTo("node-b");
+        assertThat(takenOver.getAttempts()).isEqualTo(2);
+
+        //Step 4: A's late heartbeat does not touch B's lease
+        a.heartbeat();
+        assertThat(stored(jobId).getLeaseOwner()).isEqualTo("node-b");
+        assertThat(stored(jobId).getLeaseExpiresAt()).isEqualTo(takenOver.getLeaseExpiresAt());
+
+        //Step 5: A finishes extracting, its fenced write is refused and it gives up without scoring
+        releaseExtraction.countDown();
+        runA.get(5, TimeUnit.SECONDS);
+        ATSJob afterA = stored(jobId);
+        assertThat(afterA.getExtractedText()).isNull();
+        assertThat(afterA.getContent()).isNotNull();
+        assertThat(afterA.getLeaseOwner()).isEqualTo("node-b");
+        verify(atsService, never()).analyzeText(anyString());
+
+        //Step 6: B runs the job to completion
+        executorB.runNext();
+        ATSJob done = stored(jobId);
+        assertThat(done.getStatus()).isEqualTo(ATSJobService.STATUS_DONE);
+        assertThat(done.getResult().getOverallScore()).isEqualTo(80);
+        assertThat(done.getAttempts()).isEqualTo(2);
+        assertThat(done.getLeaseOwner()).isNull();
+        assertThat(done.getContent()).isNull();
+        assertThat(done.getExpiresAt()).isNotNull();
+        verify(atsService, times(1)).analyzeText("resume text");
+    }
+
+    @Test
+    void aJobThatExhaustedItsAttemptsIsFailed() throws Exception {
+        ATSJobService a = worker("node-a", executorA, 1, 2);
+        ATSJobService b = worker("node-b", executorB, 1, 2);
+        String jobId = submit(a, executorA);
+
+        //Step 1: both instances claim the job in turn and never finish it
+        a.pollForJobs();
+        waitForLeaseToExpire(jobId);
+        b.pollForJobs();
+        assertThat(stored(jobId).getAttempts()).isEqualTo(2);
+
+        //Step 2: a job with a live lease is left alone, even on its last attempt
+        a.failExhaustedJobs();
+        assertThat(stored(jobId).getStatus()).isEqualTo(ATSJobService.STATUS_QUEUED);
+
+        //Step 3: once that lease runs out nobody may claim it, and the reaper fails it
+        waitForLeaseToExpire(jobId);
+        executorA.tasks.clear();
+        a.pollForJobs();
+        assertThat(executorA.tasks).isEmpty();
+        b.failExhaustedJobs();
+        ATSJob failed = stored(jobId);
+        assertThat(failed.getStatus()).isEqualTo(ATSJobService.STATUS_FAILED);
+        assertThat(failed.getError()).contains("gave up after 2 attempts");
+        assertThat(failed.getLeaseOwner()).isNull();
+        assertThat(failed.getContent()).isNull();
+        assertThat(failed.getExpiresAt()).isNotNull();
+
+        //Step 4: the worker that last held the job cannot overwrite the failure
+        executorB.runNext();
+        assertThat(stored(jobId).getStatus()).isEqualTo(ATSJobService.STATUS_FAILED);
+        verify(atsService, never()).analyzeText(anyString());
+    }
+
+    @Test
+    void aJobHandedBackForLackOfCapacityKeepsItsAttempt() throws Exception {
+        ATSAdmissionControl saturated = admissionControl(1, 0);
+        ATSAdmissionControl.Permit held = saturated.acquire();
+        ATSJobService a = worker("node-a", executorA, 1, 1, saturated);
+        ATSJobService b = worker("node-b", executorB, 1, 1);
+        String jobId = submit(a, executorA);
+
+        //Step 1: A claims the job but every analysis slot is taken, so it hands the job back
+        a.pollForJobs();
+        assertThat(stored(jobId).getAttempts()).isEqualTo(1);
+        executorA.runNext();
+        ATSJob handedBack = stored(jobId);
+        assertThat(handedBack.getAttempts()).isZero();
+        assertThat(handedBack.getLeaseOwner()).isNull();
+        assertThat(handedBack.getLeaseExpiresAt()).isNull();
+        assertThat(handedBack.getStatus()).isEqualTo(ATSJobService.STATUS_QUEUED);
+
+        //Step 2: B picks it up straight away, and with a single allowed attempt it still gets to run it
+        b.pollForJobs();
+        assertThat(executorB.tasks).hasSize(1);
+        executorB.runNext();
+        ATSJob done = stored(jobId);
+        assertThat(done.getStatus()).isEqualTo(ATSJobService.STATUS_DONE);
+        assertThat(done.getAttempts()).isEqualTo(1);
+        held.release();
+    }
+
+    private static void awaitThen(CountDownLatch start, Runnable action) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        action.run();
+    }
+
+    /**
+     * Holds the tasks handed to it until the test runs them.
+     */
+    private static class ManualExecutor implements TaskExecutor {
+
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runNext() {
+            Runnable task = tasks.poll();
+            assertThat(task).as("a task to run").isNotNull();
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import in.omkarbirajdar.resumebuilderapi.exception.LlmUnavailableException;
+import in.omkarbirajdar.resumebuilderapi.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the client against a local stub of the chat completions endpoint that answers from a script.
+ */
+class GroqClientTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(300);
+
+    private final ConcurrentLinkedDeque<Reply> replies = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private HttpServer server;
+    private String url;
+
+    /**
+     * One scripted answer of the stub: a status, an optional Retry-After header and a body. A reply with
+     * {@code drop} closes the connection without answering, {@code hold} blocks the answer until released.
+     */
+    private record Reply(int status, String retryAfter, String body, boolean drop, CountDownLatch hold) {
+
+        static Reply ok(String content) {
+            return new Reply(200, null, completion(content), false, null);
+        }
+
+        static Reply status(int status) {
+            return new Reply(status, null, "{\"error\":{\"message\":\"status " + status + "\"}}", false, null);
+        }
+
+        static Reply status(int status, String retryAfter) {
+            return new Reply(status, retryAfter, "{\"error\":{\"message\":\"status " + status + "\"}}", false, null);
+        }
+
+        static Reply dropConnection() {
+            return new Reply(0, null, null, true, null);
+        }
+
+        static Reply stream(String... deltas) {
+            StringBuilder body = new StringBuilder();
+            for (String delta : deltas) {
+                body.append("data: {\"choices\":[{\"delta\":{\"content\":\"").append(delta).append("\"}}]}\n\n");
+            }
+            body.append("data: [DONE]\n\n");
+            return new Reply(200, null, body.toString(), false, null);
+        }
+
+        Reply heldUntil(CountDownLatch release) {
+            return new Reply(status, retryAfter, body, drop, release);
+        }
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::answer);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        Reply reply = replies.poll();
+        if (reply == null) {
+            reply = Reply.status(500);
+        }
+        if (reply.hold() != null) {
+            try {
+                reply.hold().await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (reply.drop()) {
+            // The stub server closes the connection when a handler fails before answering
+            throw new IOException("connection dropped by the stub");
+        }
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+        if (reply.retryAfter() != null) {
+            exchange.getResponseHeaders().add("Retry-After", reply.retryAfter());
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String completion(String content) {
+        return "{\"choices\":[{\"message\":{\"content\":\"" + content + "\"}}],"
+                + "\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":3}}";
+    }
+
+    private GroqClient client(HttpClient httpClient, String url, int maxAttempts, int failureThreshold) {
+        return new GroqClient(httpClient, new SimpleMeterRegistry(), "test-key", url, "test-model",
+                Duration.ofSeconds(5), maxAttempts, Duration.ofMillis(10), Duration.ofSeconds(2),
+                failureThreshold, OPEN_DURATION);
+    }
+
+    private GroqClient client(int maxAttempts, int failureThreshold) {
+        return client(httpClient, url, maxAttempts, failureThreshold);
+    }
+
+    @Test
+    void returnsTheMessageContent() {
+        replies.add(Reply.ok("hello"));
+
+        assertThat(client(3, 5).chatCompletion("prompt")).isEqualTo("hello");
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void waitsForRetryAfterBeforeRetryingA429() {
+        replies.add(Reply.status(429, "1"));
+        replies.add(Reply.ok("after backoff"));
+
+        long start = System.nanoTime();
+        String content = client(3, 5).chatCompletion("prompt");
+
+        assertThat(content).isEqualTo("after backoff");
+        assertThat(requests).hasValue(2);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void retriesA503UntilItSucceeds() {
+        replies.add(Reply.status(503));
+        replies.add(Reply.status(503));
+        replies.add(Reply.ok("third time"));
+        GroqClient client = client(3, 5);
+
+        assertThat(client.chatCompletion("prompt")).isEqualTo("third time");
+        assertThat(requests).hasValue(3);
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void givesUpWhenRetryAfterExceedsTheMaximumBackoff() {
+        replies.add(Reply.status(503, "60"));
+        replies.add(Reply.ok("never asked"));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client(3, 5).chatCompletion("prompt"))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("503 after 1 attempts");
+        assertThat(requests).hasValue(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        replies.add(Reply.status(429));
+        replies.add(Reply.status(503));
+        replies.add(Reply.status(503));
+
+        assertThatThrownBy(() -> client(3, 5).chatCompletion("prompt"))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("503 after 3 attempts");
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryOrCountAClientError() {
+        replies.add(Reply.status(400));
+        GroqClient client = client(3, 1);
+
+        assertThatThrownBy(() -> client.chatCompletion("prompt"))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("status 400");
+        assertThat(requests).hasValue(1);
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void retriesADroppedConnection() {
+        replies.add(Reply.dropConnection());
+        replies.add(Reply.ok("reconnected"));
+
+        assertThat(client(3, 5).chatCompletion("prompt")).isEqualTo("reconnected");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void opensTheCircuitWhenGroqIsUnreachable() throws IOException {
+        String unreachable;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            unreachable = "http://127.0.0.1:" + socket.getLocalPort() + "/v1/chat/completions";
+        }
+        GroqClient client = client(httpClient, unreachable, 2, 1);
+
+        assertThatThrownBy(() -> client.chatCompletion("prompt"))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("unreachable");
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void failsFastWhileOpenAndClosesAfterASuccessfulTrial() throws InterruptedException {
+        GroqClient client = client(1, 2);
+        replies.add(Reply.status(500));
+        replies.add(Reply.status(500));
+
+        //Step 1: two failures in a row open the circuit
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.chatCompletion("prompt")).isInstanceOf(LlmUnavailableException.class);
+        }
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        //Step 2: while open, calls are rejected without reaching Groq
+        assertThatThrownBy(() -> client.chatCompletion("prompt"))
+                .isInstanceOf(LlmUnavailableException.class)
+                .hasMessageContaining("circuit open");
+        assertThat(client.streamChatCompletion("prompt", delta -> { }))
+                .failsWithin(Duration.ofSeconds(1));
+        assertThat(requests).hasValue(2);
+
+        //Step 3: after the open duration a single trial goes through, other calls are rejected until it ends
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        CountDownLatch release = new CountDownLatch(1);
+        replies.add(Reply.ok("trial").heldUntil(release));
+        CompletableFuture<String> trial = CompletableFuture.supplyAsync(() -> client.chatCompletion("prompt"));
+        awaitRequests(3);
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(() -> client.chatCompletion("prompt"))
+                .hasMessageContaining("circuit open");
+
+        //Step 4: the successful trial closes the circuit
+        release.countDown();
+        assertThat(trial).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("trial");
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        replies.add(Reply.ok("closed"));
+        assertThat(client.chatCompletion("prompt")).isEqualTo("closed");
+    }
+
+    @Test
+    void reopensWhenTheTrialFails() throws InterruptedException {
+        GroqClient client = client(1, 1);
+        replies.add(Reply.status(503));
+        assertThatThrownBy(() -> client.chatCompletion("prompt")).isInstanceOf(LlmUnavailableException.class);
+
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        replies.add(Reply.status(503));
+        assertThatThrownBy(() -> client.chatCompletion("prompt")).hasMessageContaining("status 503");
+
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> client.chatCompletion("prompt")).hasMessageContaining("circuit open");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void aTrialThatThrowsDoesNotKeepTheCircuitHalfOpen() throws InterruptedException {
+        ThrowingHttpClient throwing = new ThrowingHttpClient(httpClient);
+        GroqClient client = client(throwing, url, 1, 1);
+        replies.add(Reply.status(503));
+        assertThatThrownBy(() -> client.chatCompletion("prompt")).isInstanceOf(LlmUnavailableException.class);
+
+        //Step 1: the trial ends with an exception that records no outcome
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        throwing.failNext.set(new IllegalStateException("client shut down"));
+        assertThatThrownBy(() -> client.chatCompletion("prompt")).isInstanceOf(IllegalStateException.class);
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        //Step 2: the next call is let through as a new trial instead of being rejected forever
+        replies.add(Reply.ok("recovered"));
+        assertThat(client.chatCompletion("prompt")).isEqualTo("recovered");
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aStreamedTrialThatThrowsDoesNotKeepTheCircuitHalfOpen() throws InterruptedException {
+        ThrowingHttpClient throwing = new ThrowingHttpClient(httpClient);
+        GroqClient client = client(throwing, url, 1, 1);
+        replies.add(Reply.status(503));
+        assertThatThrownBy(() -> client.chatCompletion("prompt")).isInstanceOf(LlmUnavailableException.class);
+
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        throwing.failNext.set(new IllegalStateException("client shut down"));
+        assertThatThrownBy(() -> client.streamChatCompletion("prompt", delta -> { }))
+                .isInstanceOf(IllegalStateException.class);
+
+        replies.add(Reply.stream("re", "covered"));
+        List<String> deltas = new ArrayList<>();
+        assertThat(client.streamChatCompletion("prompt", deltas::add)).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(deltas).containsExactly("re", "covered");
+        awaitState(client, CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void streamsContentDeltasAndCountsErrorStatuses() throws InterruptedException {
+        GroqClient client = client(3, 1);
+        replies.add(Reply.stream("Hel", "lo"));
+        List<String> deltas = new ArrayList<>();
+
+        assertThat(client.streamChatCompletion("prompt", deltas::add)).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(deltas).containsExactly("Hel", "lo");
+
+        // Streams are not retried, and a retryable status counts towards the breaker
+        replies.add(Reply.status(503));
+        assertThat(client.streamChatCompletion("prompt", deltas::add)).failsWithin(Duration.ofSeconds(5));
+        assertThat(requests).hasValue(2);
+        // The outcome is recorded right after the future fails
+        awaitState(client, CircuitBreaker.State.OPEN);
+    }
+
+    private void awaitState(GroqClient client, CircuitBreaker.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getCircuitState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(client.getCircuitState()).isEqualTo(state);
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(requests).hasValue(count);
+    }
+
+    /**
+     * Delegates to a real client but can be told to throw from the next send, the way a closed or misconfigured
+     * client fails without any answer from Groq.
+     */
+    private static class ThrowingHttpClient extends HttpClient {
+
+        private final HttpClient delegate;
+        private final AtomicReference<RuntimeException> failNext = new AtomicReference<>();
+
+        private ThrowingHttpClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        private void maybeFail() {
+            RuntimeException failure = failNext.getAndSet(null);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+                throws IOException, InterruptedException {
+            maybeFail();
+            return delegate.send(request, handler);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            maybeFail();
+            return delegate.sendAsync(request, handler);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            maybeFail();
+            return delegate.sendAsync(request, handler, pushPromiseHandler);
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return delegate.cookieHandler();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return delegate.connectTimeout();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return delegate.followRedirects();
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return delegate.proxy();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return delegate.sslContext();
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return delegate.sslParameters();
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return delegate.authenticator();
+        }
+
+        @Override
+        public Version version() {
+            return delegate.version();
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return delegate.executor();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package in.omkarbirajdar.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.document.ResumeRevision;
+import in.omkarbirajdar.resumebuilderapi.dto.AuthResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Records revisions of a resume through the real revision log, with a short snapshot interval so the chains
+ * cross several snapshots, and checks every revision is rebuilt exactly as saved, before and after compaction.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ResumeRevisionServiceIntegrationTest {
+
+    private static final String RESUME_ID = "resume-1";
+    private static final String USER_ID = "user-1";
+    private static final int SNAPSHOT_INTERVAL = 4;
+    private static final int MAX_COMPACTED = 3;
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final AuthService authService = mock(AuthService.class);
+    private final Map<Long, Resume> saved = new HashMap<>();
+    private ResumeRevisionService revisions;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "resume_revisions_test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(ResumeRevision.class);
+        when(authService.getProfile(any())).thenReturn(AuthResponse.builder().id(USER_ID).build());
+        revisions = newService();
+        revisions.ensureIndexes();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        revisions.stop();
+    }
+
+    private ResumeRevisionService newService() {
+        return new ResumeRevisionService(mongoTemplate, objectMapper, authService, new SimpleMeterRegistry(),
+                SNAPSHOT_INTERVAL, Duration.ofHours(1), MAX_COMPACTED, 1000, 100);
+    }
+
+    @Test
+    void everyRevisionIsRebuiltAcrossSnapshots() {
+        recordVersions(revisions, 1, 15);
+
+        //Step 1: the chain was cut into several snapshots with patches in between
+        List<ResumeRevision> stored = storedRevisions();
+        assertThat(stored).hasSize(15);
+        assertThat(stored.stream().filter(ResumeRevision::isSnapshot).map(ResumeRevision::getVersion))
+                .hasSizeGreaterThanOrEqualTo(15 / SNAPSHOT_INTERVAL)
+                .contains(1L);
+        assertThat(stored).allSatisfy(revision -> assertThat(revision.getDepth()).isLessThan(SNAPSHOT_INTERVAL));
+        assertThat(stored.stream().filter(revision -> !revision.isSnapshot())).isNotEmpty();
+
+        //Step 2: each one reads back as it was saved
+        for (long version = 1; version <= 15; version++) {
+            assertRebuilt(revisions, version);
+        }
+    }
+
+    @Test
+    void aRestartedInstanceContinuesTheChainFromTheStoredHead() throws InterruptedException {
+        recordVersions(revisions, 1, 6);
+        revisions.stop();
+
+        // No cached head: the next revision is diffed against the stored one
+        revisions = newService();
+        recordVersions(revisions, 7, 10);
+
+        assertThat(storedRevisions()).hasSize(10);
+        for (long version = 1; version <= 10; version++) {
+            assertRebuilt(revisions, version);
+        }
+    }
+
+    @Test
+    void keptRevisionsAreRebuiltAfterCompaction() {
+        recordVersions(revisions, 1, 15);
+
+        //Step 1: age versions 1 to 10 over four days, the last one of each day is 3, 6, 8 and 10
+        LocalDateTime now = LocalDateTime.now();
+        age(1, 3, now.minusDays(5));
+        age(4, 6, now.minusDays(4));
+        age(7, 8, now.minusDays(3));
+        age(9, 10, now.minusDays(2));
+
+        //Step 2: compact, at most three old revisions are kept
+        revisions.compactOldRevisions();
+        await(() -> storedRevisions().size() == 8);
+
+        //Step 3: the newest days survive with every recent revision, each rebuilt as it was saved
+        List<ResumeRevision> stored = storedRevisions();
+        assertThat(stored).extracting(ResumeRevision::getVersion).containsExactly(6L, 8L, 10L, 11L, 12L, 13L, 14L, 15L);
+        assertThat(stored.get(0).isSnapshot()).isTrue();
+        assertThat(stored).filteredOn(revision -> revision.getVersion() <= 10)
+                .allSatisfy(revision -> assertThat(revision.isCompacted()).isTrue());
+        assertThat(stored).filteredOn(revision -> revision.getVersion() > 10)
+                .allSatisfy(revision -> assertThat(revision.isCompacted()).isFalse());
+        assertThat(stored).allSatisfy(revision -> {
+            assertThat(revision.getDepth()).isLessThan(SNAPSHOT_INTERVAL);
+            if (!revision.isSnapshot()) {
+                assertThat(stored).extracting(ResumeRevision::getVersion).contains(revision.getBaseVersion());
+            }
+        });
+        for (long version : List.of(6L, 8L, 10L, 11L, 12L, 13L, 14L, 15L)) {
+            assertRebuilt(revisions, version);
+        }
+        assertThatThrownBy(() -> revisions.getRevision(RESUME_ID, 7, USER_ID)).hasMessage("Revision not found");
+
+        //Step 4: a revision recorded after compaction builds on the compacted chain
+        recordVersions(revisions, 16, 17);
+        assertRebuilt(revisions, 16);
+        assertRebuilt(revisions, 17);
+    }
+
+    private void recordVersions(ResumeRevisionService service, long from, long to) {
+        for (long version = from; version <= to; version++) {
+            Resume resume = resumeAt(version);
+            saved.put(version, resume);
+            service.record(RESUME_ID, USER_ID, version, resume);
+        }
+        // Revisions are written in order on one thread, the last one marks the end
+        await(() -> storedRevisions().stream().anyMatch(revision -> revision.getVersion() == to));
+    }
+
+    private void assertRebuilt(ResumeRevisionService service, long version) {
+        Resume rebuilt = service.getRevision(RESUME_ID, version, USER_ID);
+        assertThat(rebuilt.getVersion()).isEqualTo(version);
+        assertThat(rebuilt)
+                .as("revision %d", version)
+                .usingRecursiveComparison()
+                .ignoringFields("id", "userId", "version", "createdAt", "updatedAt")
+                .isEqualTo(saved.get(version));
+    }
+
+    private static void age(long fromVersion, long toVersion, LocalDateTime day) {
+        for (long version = fromVersion; version <= toVersion; version++) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("resumeId").is(RESUME_ID).and("version").is(version)),
+                    new Update().set("createdAt", day.withHour(8).plusMinutes(version)), ResumeRevision.class);
+        }
+    }
+
+    private static List<ResumeRevision> storedRevisions() {
+        return mongoTemplate.find(new Query(Criteria.where("resumeId").is(RESUME_ID))
+                .with(Sort.by(Sort.Direction.ASC, "version")), ResumeRevision.class);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("revision log caught up").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * The resume as saved at a version: a few roles and skills, one role rewritten per save, a role added every
+     * fifth save and the title replaced every third, so most revisions are small patches and some are not.
+     */
+    private static Resume resumeAt(long version) {
+        List<Resume.WorkExperience> roles = new ArrayList<>();
+        for (int i = 0; i < 4 + version / 5; i++) {
+            String description = i == version % 4
+                    ? "Rewritten at version " + version + ", led the migration of the billing platform to event sourcing"
+                    : "Built and ran the services behind the customer portal, role " + i;
+            roles.add(Resume.WorkExperience.builder()
+                    .company("Company " + i)
+                    .role("Engineer " + i)
+                    .startDate("2018-0" + (i % 9 + 1))
+                    .description(description)
+                    .build());
+        }
+        return Resume.builder()
+                .title("Resume " + version / 3)
+                .profileInfo(Resume.ProfileInfo.builder()
+                        .fullName("Ada Lovelace")
+                        .designation("Software engineer")
+                        .summary("Engineer with a long history of shipping reliable backend systems")
+                        .build())
+                .workExperience(roles)
+                .skills(List.of(new Resume.Skill("Java", 90), new Resume.Skill("MongoDB", 70 + (int) version % 10)))
+                .interests(List.of("chess", "climbing"))
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+    @Test
+    void tagIsTheQuotedVersion() {
+        assertThat(ETags.of(42L)).isEqualTo("\"42\"");
+        // Resumes stored before versioning count as version 0
+        assertThat(ETags.of(null)).isEqualTo("\"0\"");
+    }
+
+    @Test
+    void ifMatchAcceptsEveryListedStrongTag() {
+        assertThat(ETags.parseIfMatch("\"3\"")).containsExactly(3L);
+        assertThat(ETags.parseIfMatch(" \"3\" ,\"5\",\"8\"")).containsExactly(3L, 5L, 8L);
+    }
+
+    @Test
+    void ifMatchNeverAcceptsAWeakTag() {
+        assertThat(ETags.parseIfMatch("W/\"3\"")).isEmpty();
+        assertThat(ETags.parseIfMatch("W/\"3\", \"4\"")).containsExactly(4L);
+    }
+
+    @Test
+    void ifMatchStarAcceptsAnyVersion() {
+        assertThat(ETags.parseIfMatch("*")).isNull();
+        assertThat(ETags.parseIfMatch(" * ")).isNull();
+    }
+
+    @Test
+    void ifMatchIgnoresMalformedTags() {
+        assertThat(ETags.parseIfMatch("3")).isEmpty();
+        assertThat(ETags.parseIfMatch("\"\"")).isEmpty();
+        assertThat(ETags.parseIfMatch("\"abc\", \"7")).isEmpty();
+        // A star inside a list is not the wildcard
+        assertThat(ETags.parseIfMatch("\"2\", *")).containsExactly(2L);
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() {
+        assertThat(ETags.matchesIfNoneMatch("\"3\"", 3L)).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("W/\"3\"", 3L)).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("\"1\", W/\"2\"", 2L)).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("\"1\", W/\"2\"", 3L)).isFalse();
+        assertThat(ETags.matchesIfNoneMatch("\"0\"", null)).isTrue();
+    }
+
+    @Test
+    void ifNoneMatchStarMatchesAnyVersion() {
+        assertThat(ETags.matchesIfNoneMatch("*", 9L)).isTrue();
+        assertThat(ETags.matchesIfNoneMatch("*", null)).isTrue();
+    }
+
+    @Test
+    void ifNoneMatchIgnoresMalformedTags() {
+        assertThat(ETags.matchesIfNoneMatch("3", 3L)).isFalse();
+        assertThat(ETags.matchesIfNoneMatch("W/3", 3L)).isFalse();
+        assertThat(ETags.matchesIfNoneMatch("w/\"3\"", 3L)).isFalse();
+    }
+}
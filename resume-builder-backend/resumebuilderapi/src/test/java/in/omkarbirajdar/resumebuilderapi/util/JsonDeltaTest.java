@@ -0,0 +1,173 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonDeltaTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static JsonNode json(String json) throws Exception {
+        return objectMapper.readTree(json.replace('\'', '"'));
+    }
+
+    private static void assertRoundTrip(JsonNode source, JsonNode target) {
+        JsonNode original = source.deepCopy();
+        ArrayNode operations = JsonDelta.diff(source, target);
+        assertThat(JsonDelta.apply(source, operations)).isEqualTo(target);
+        // Applying works on a copy
+        assertThat(source).isEqualTo(original);
+    }
+
+    @Test
+    void equalDocumentsHaveNoOperations() throws Exception {
+        JsonNode resume = json("{'title': 'A', 'skills': [{'name': 'Java'}]}");
+
+        assertThat(JsonDelta.diff(resume, resume.deepCopy())).isEmpty();
+    }
+
+    @Test
+    void editingOneNestedValueIsOneReplace() throws Exception {
+        JsonNode source = json("{'workExperience': [{'role': 'Dev', 'company': 'Acme'}, {'role': 'Lead', 'company': 'Beta'}]}");
+        JsonNode target = json("{'workExperience': [{'role': 'Dev', 'company': 'Acme'}, {'role': 'Staff', 'company': 'Beta'}]}");
+
+        assertThat(JsonDelta.diff(source, target)).containsExactly(
+                json("{'op': 'replace', 'path': '/workExperience/1/role', 'value': 'Staff'}"));
+        assertRoundTrip(source, target);
+    }
+
+    @Test
+    void roundTripsAddedAndRemovedFields() throws Exception {
+        assertRoundTrip(
+                json("{'title': 'A', 'profileInfo': {'summary': 'x', 'designation': 'Dev'}}"),
+                json("{'title': 'A', 'profileInfo': {'summary': 'y', 'fullName': 'Ada'}, 'interests': ['chess']}"));
+    }
+
+    @Test
+    void roundTripsArraysThatGrowAndShrink() throws Exception {
+        JsonNode three = json("{'skills': [{'name': 'Java'}, {'name': 'Go'}, {'name': 'SQL'}]}");
+        JsonNode one = json("{'skills': [{'name': 'Kotlin'}]}");
+        JsonNode five = json("{'skills': [{'name': 'Java'}, {'name': 'Go'}, {'name': 'SQL'}, {'name': 'Rust'}, {'name': 'C'}]}");
+
+        assertRoundTrip(three, one);
+        assertRoundTrip(one, three);
+        assertRoundTrip(three, five);
+        assertRoundTrip(json("{'skills': []}"), three);
+        assertRoundTrip(three, json("{'skills': []}"));
+    }
+
+    @Test
+    void roundTripsChangesOfType() throws Exception {
+        assertRoundTrip(json("{'contactInfo': {'email': 'a@b.c'}}"), json("{'contactInfo': null}"));
+        assertRoundTrip(json("{'contactInfo': null}"), json("{'contactInfo': {'email': 'a@b.c'}}"));
+        assertRoundTrip(json("{'interests': ['chess']}"), json("{'interests': 'chess'}"));
+        assertRoundTrip(json("{'progress': 80}"), json("{'progress': '80'}"));
+    }
+
+    @Test
+    void roundTripsKeysThatNeedEscaping() throws Exception {
+        JsonNode source = json("{'a/b': 1, 'c~d': {'e~1f': 2}}");
+        JsonNode target = json("{'a/b': 3, 'c~d': {'e~1f': 4, '~0': 5}}");
+
+        assertThat(JsonDelta.diff(source, target)).extracting(operation -> operation.path("path").asText())
+                .containsExactly("/a~1b", "/c~0d/e~01f", "/c~0d/~00");
+        assertRoundTrip(source, target);
+    }
+
+    @Test
+    void replacesTheWholeDocumentWhenTheRootChangesType() throws Exception {
+        assertRoundTrip(json("{'title': 'A'}"), json("['A']"));
+    }
+
+    @Test
+    void rebuildsEveryRevisionOfAChainAcrossSnapshots() throws Exception {
+        List<JsonNode> revisions = revisions(40);
+        int snapshotInterval = 7;
+
+        // Stored the way the revision log stores them: a snapshot every few revisions, patches in between
+        List<JsonNode> stored = new ArrayList<>();
+        for (int i = 0; i < revisions.size(); i++) {
+            stored.add(i % snapshotInterval == 0 ? revisions.get(i) : JsonDelta.diff(revisions.get(i - 1), revisions.get(i)));
+        }
+
+        for (int i = 0; i < revisions.size(); i++) {
+            int snapshot = i - i % snapshotInterval;
+            JsonNode content = stored.get(snapshot);
+            for (int j = snapshot + 1; j <= i; j++) {
+                content = JsonDelta.apply(content, (ArrayNode) stored.get(j));
+            }
+            assertThat(content).as("revision %d", i).isEqualTo(revisions.get(i));
+        }
+    }
+
+    @Test
+    void aPatchBetweenDistantRevisionsReplacesThePatchesInBetween() throws Exception {
+        List<JsonNode> revisions = revisions(30);
+
+        // Compaction drops revisions and re-bases the kept ones on the revision kept before them
+        int[] kept = {0, 4, 5, 13, 29};
+        for (int i = 1; i < kept.length; i++) {
+            JsonNode base = revisions.get(kept[i - 1]);
+            JsonNode target = revisions.get(kept[i]);
+            assertThat(JsonDelta.apply(base, JsonDelta.diff(base, target))).isEqualTo(target);
+        }
+
+        // The same content is reached whether the patches are applied one by one or as a single re-based patch
+        JsonNode stepwise = revisions.get(5);
+        for (int i = 6; i <= 13; i++) {
+            stepwise = JsonDelta.apply(stepwise, JsonDelta.diff(revisions.get(i - 1), revisions.get(i)));
+        }
+        assertThat(stepwise).isEqualTo(JsonDelta.apply(revisions.get(5), JsonDelta.diff(revisions.get(5), revisions.get(13))));
+    }
+
+    @Test
+    void rejectsOperationsThatDoNotFitTheDocument() throws Exception {
+        JsonNode source = json("{'title': 'A', 'skills': []}");
+
+        assertThatThrownBy(() -> JsonDelta.apply(source, (ArrayNode) json("[{'op': 'replace', 'path': '/title/x', 'value': 1}]")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JsonDelta.apply(source, (ArrayNode) json("[{'op': 'add', 'path': '/skills/first', 'value': 1}]")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JsonDelta.apply(source, (ArrayNode) json("[{'op': 'remove', 'path': ''}]")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * A resume edited the way the editor edits it: the summary rewritten, roles added and removed, skills added,
+     * the title dropped and restored.
+     */
+    private static List<JsonNode> revisions(int count) throws Exception {
+        List<JsonNode> revisions = new ArrayList<>();
+        JsonNode current = json("{'title': 'Resume', 'profileInfo': {'summary': 'Engineer'}, 'workExperience': [], 'skills': []}");
+        for (int i = 0; i < count; i++) {
+            JsonNode next = current.deepCopy();
+            ((ObjectNode) next.get("profileInfo")).put("summary", "Engineer, draft " + i);
+            ArrayNode roles = (ArrayNode) next.get("workExperience");
+            if (i % 5 == 4 && roles.size() > 1) {
+                roles.remove(1);
+            } else {
+                roles.addObject().put("role", "Role " + i).put("company", "Company " + i % 3);
+            }
+            if (i % 3 == 0) {
+                ((ArrayNode) next.get("skills")).addObject().put("name", "Skill " + i).put("progress", i);
+            }
+            if (i % 4 == 1) {
+                ((ObjectNode) next).remove("title");
+            } else {
+                ((ObjectNode) next).put("title", "Resume " + i);
+            }
+            revisions.add(next);
+            current = next;
+        }
+        return revisions;
+    }
+}
@@ -0,0 +1,174 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.omkarbirajdar.resumebuilderapi.document.Resume;
+import in.omkarbirajdar.resumebuilderapi.dto.ResumePatchOperation;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumePatchTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static JsonNode json(String json) throws Exception {
+        return objectMapper.readTree(json.replace('\'', '"'));
+    }
+
+    private static ResumePatchOperation op(String op, String path, String value) throws Exception {
+        return new ResumePatchOperation(op, path, value == null ? null : json(value));
+    }
+
+    private static Document set(ResumePatch patch) {
+        return patch.getUpdate().getUpdateObject().get("$set", Document.class);
+    }
+
+    private static Document unset(ResumePatch patch) {
+        return patch.getUpdate().getUpdateObject().get("$unset", Document.class);
+    }
+
+    @Test
+    void mergePatchMergesObjectsAndReplacesListsAndValues() throws Exception {
+        ResumePatch patch = ResumePatch.fromMergePatch(json("""
+                {'title': 'Backend', 'profileInfo': {'summary': 'Ten years of Java'}, 'contactInfo': {'github': null},
+                 'skills': [{'name': 'Kafka', 'progress': 80}]}"""));
+
+        assertThat(set(patch)).containsOnlyKeys("title", "profileInfo.summary", "skills");
+        assertThat(set(patch).get("title")).isEqualTo("Backend");
+        assertThat(set(patch).get("profileInfo.summary")).isEqualTo("Ten years of Java");
+        assertThat(set(patch).get("skills")).asList().singleElement()
+                .isEqualTo(new Resume.Skill("Kafka", 80));
+        assertThat(unset(patch)).containsOnlyKeys("contactInfo.github");
+        assertThat(patch.getRequiredElements()).isEmpty();
+    }
+
+    @Test
+    void operationsWriteTheSameFieldsAsTheEquivalentMergePatch() throws Exception {
+        ResumePatch merged = ResumePatch.fromMergePatch(json("{'profileInfo': {'summary': 'Hi', 'designation': null}}"));
+        ResumePatch operations = ResumePatch.fromOperations(List.of(
+                op("set", "profileInfo.summary", "'Hi'"),
+                op("remove", "profileInfo.designation", null)));
+
+        assertThat(operations.getUpdate().getUpdateObject()).isEqualTo(merged.getUpdate().getUpdateObject());
+    }
+
+    @Test
+    void operationsAddressListElementsByIndex() throws Exception {
+        ResumePatch patch = ResumePatch.fromOperations(List.of(
+                op("set", "workExperience[2].role", "'Staff engineer'"),
+                op("replace", "projects[0]", "{'title': 'Resume builder'}"),
+                op("append", "skills", "[{'name': 'Kafka'}, {'name': 'Mongo'}]"),
+                op("push", "interests", "'chess'")));
+
+        assertThat(set(patch)).containsOnlyKeys("workExperience.2.role", "projects.0");
+        assertThat(set(patch).get("projects.0")).isInstanceOf(Resume.Project.class);
+        assertThat(patch.getUpdate().getUpdateObject().get("$push", Document.class))
+                .containsOnlyKeys("skills", "interests");
+        // The update may only apply when the addressed elements exist
+        assertThat(patch.getRequiredElements()).containsExactlyInAnyOrder("workExperience.2", "projects.0");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"version", "id", "userId", "createdAt", "updatedAt"})
+    void protectedFieldsCannotBePatched(String field) throws Exception {
+        assertThatThrownBy(() -> ResumePatch.fromMergePatch(json("{'" + field + "': 7}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("read-only");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("set", field, "7"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("read-only");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("remove", field, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void overlappingOperationsAreRejected() throws Exception {
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(
+                op("set", "profileInfo", "{'fullName': 'Ada'}"),
+                op("set", "profileInfo.summary", "'Hi'"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("overlap");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(
+                op("set", "title", "'One'"),
+                op("set", "title", "'Two'"))))
+                .hasMessageContaining("overlap");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(
+                op("append", "workExperience", "{'company': 'Acme'}"),
+                op("set", "workExperience[1].role", "'Lead'"))))
+                .hasMessageContaining("overlap");
+    }
+
+    @Test
+    void siblingPathsWithACommonPrefixDoNotOverlap() throws Exception {
+        ResumePatch patch = ResumePatch.fromOperations(List.of(
+                op("set", "workExperience[1].role", "'Lead'"),
+                op("set", "workExperience[10].role", "'Intern'")));
+
+        assertThat(set(patch)).containsOnlyKeys("workExperience.1.role", "workExperience.10.role");
+    }
+
+    @Test
+    void indexesBeyondTheSupportedRangeAreRejected() {
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("set", "skills[10000].name", "'Go'"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid path");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("set", "skills[-1].name", "'Go'"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid path");
+    }
+
+    @Test
+    void anIndexInRangeIsOnlyRequiredToExist() throws Exception {
+        // Whether element 9999 exists is checked by the write itself, see getRequiredElements
+        ResumePatch patch = ResumePatch.fromOperations(List.of(op("set", "skills[9999].name", "'Go'")));
+
+        assertThat(patch.getRequiredElements()).containsExactly("skills.9999");
+    }
+
+    @Test
+    void listElementsCannotBeRemovedByIndex() {
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("remove", "skills[0]", null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("setting the whole list");
+    }
+
+    @Test
+    void unknownPathsAndWrongShapesAreRejected() {
+        assertThatThrownBy(() -> ResumePatch.fromMergePatch(json("{'profileInfo': {'age': 30}}")))
+                .hasMessageContaining("Unknown or read-only field");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("set", "profileInfo[0].summary", "'Hi'"))))
+                .hasMessageContaining("not a list");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("append", "title", "'x'"))))
+                .hasMessageContaining("not a list");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("set", "skills[0].progress", "'lots'"))))
+                .hasMessageContaining("Invalid value for skills.0.progress");
+        assertThatThrownBy(() -> ResumePatch.fromOperations(List.of(op("move", "title", "'x'"))))
+                .hasMessageContaining("Unsupported operation");
+    }
+
+    @Test
+    void emptyAndOversizedPatchesAreRejected() throws Exception {
+        assertThatThrownBy(() -> ResumePatch.fromMergePatch(json("{}")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ResumePatch.fromMergePatch(json("[]")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ResumePatch.fromOperations(Collections.emptyList()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        List<ResumePatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i <= 200; i++) {
+            operations.add(op("set", "skills[" + i + "].name", "'skill'"));
+        }
+        assertThatThrownBy(() -> ResumePatch.fromOperations(operations))
+                .hasMessageContaining("at most 200");
+    }
+}
@@ -0,0 +1,120 @@
+package in.omkarbirajdar.resumebuilderapi.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    /**
+     * Starts {@code CALLERS} concurrent calls for the key whose task blocks until {@code release} opens, and
+     * returns once all of them have either started the task or joined the flight.
+     */
+    private List<Future<String>> callConcurrently(String key, CountDownLatch release, Exception failure)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> singleFlight.execute(key, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                if (failure != null) {
+                    throw failure;
+                }
+                return "value of " + key;
+            })));
+            if (i == 0) {
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+        // The later callers find the flight as soon as they run, give them a moment to get there
+        Thread.sleep(100);
+        return results;
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = callConcurrently("resume", release, null);
+        assertThat(singleFlight.inFlightCount()).isEqualTo(1);
+
+        release.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value of resume");
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void concurrentCallersShareTheSameFailure() throws Exception {
+        IOException failure = new IOException("extraction failed");
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = callConcurrently("resume", release, failure);
+
+        release.countDown();
+        for (Future<String> result : results) {
+            // Waiting callers get the original checked exception, not a CompletionException around it
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void theKeyIsRemovedOnceTheFlightSucceeds() throws Exception {
+        assertThat(singleFlight.execute("resume", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.inFlightCount()).isZero();
+
+        // A later call runs the task again instead of replaying the old result
+        assertThat(singleFlight.execute("resume", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    void theKeyIsRemovedOnceTheFlightFails() throws Exception {
+        assertThatThrownBy(() -> singleFlight.execute("resume", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(singleFlight.inFlightCount()).isZero();
+
+        assertThat(singleFlight.execute("resume", () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> blocked = callConcurrently("slow", release, null);
+
+        assertThat(singleFlight.execute("fast", () -> "fast value")).isEqualTo("fast value");
+        assertThat(blocked.get(0).isDone()).isFalse();
+
+        release.countDown();
+        assertThat(blocked.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("value of slow");
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+}
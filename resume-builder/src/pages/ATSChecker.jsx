@@ -18,6 +18,9 @@ import {
 } from "lucide-react";
 import toast from "react-hot-toast";
 
+const MIN_ANALYSIS_DISPLAY_MS = 8000;
+const JOB_POLL_INTERVAL_MS = 1000;
+
 const ATSChecker = () => {
     const { user } = useContext(UserContext);
     const navigate = useNavigate();
@@ -102,23 +105,31 @@ const ATSChecker = () => {
             });
         }, 100);
 
+        // The progress animation runs for at least this long, independent of how fast the server is
+        const minimumDisplay = new Promise((resolve) => setTimeout(resolve, MIN_ANALYSIS_DISPLAY_MS));
+
         try {
             const formData = new FormData();
             formData.append("file", file);
 
-            const response = await axiosInstance.post(API_PATHS.ATS.ANALYZE, formData, {
+            const submitResponse = await axiosInstance.post(API_PATHS.ATS.JOBS, formData, {
                 headers: {
                     "Content-Type": "multipart/form-data",
                 },
             });
 
+            const [result] = await Promise.all([
+                waitForJob(submitResponse.data.jobId),
+                minimumDisplay,
+            ]);
+
             clearInterval(progressInterval);
             setProgress(100);
-            setAnalysisResult(response.data);
+            setAnalysisResult(result);
             toast.success("Resume analysis complete!");
         } catch (err) {
             clearInterval(progressInterval);
-            const errorMessage = err.response?.data?.error || "Failed to analyze resume. Please try again.";
+            const errorMessage = err.response?.data?.error || err.message || "Failed to analyze resume. Please try again.";
             setError(errorMessage);
             toast.error(errorMessage);
         } finally {
@@ -126,6 +137,19 @@ const ATSChecker = () => {
         }
     };
 
+    const waitForJob = async (jobId) => {
+        while (true) {
+            const { data } = await axiosInstance.get(API_PATHS.ATS.JOB_STATUS(jobId));
+            if (data.status === "done") {
+                return data.result;
+            }
+            if (data.status === "failed") {
+                throw new Error(data.error || "Failed to analyze resume. Please try again.");
+            }
+            await new Promise((resolve) => setTimeout(resolve, JOB_POLL_INTERVAL_MS));
+        }
+    };
+
     const resetAnalysis = () => {
         setFile(null);
         setAnalysisResult(null);
@@ -16,11 +16,19 @@ const Dashboard = () => {
 
   const [openCreateModal, setOpenCreateModal] = useState(false);
   const [allResumes, setAllResumes] = useState(null);
+  const [totalResumes, setTotalResumes] = useState(0);
+  const [nextCursor, setNextCursor] = useState(null);
 
-  const fetchAllResumes = async () => {
+  // Cards are fetched a page at a time, a cursor continues after the last card shown
+  const fetchAllResumes = async (cursor = null) => {
     try {
-      const response = await axiosInstance.get(API_PATHS.RESUME.GET_ALL);
-      setAllResumes(response.data);
+      const response = await axiosInstance.get(API_PATHS.RESUME.GET_SUMMARIES, {
+        params: cursor ? { cursor } : {},
+      });
+      const { items, nextCursor: next, total } = response.data;
+      setAllResumes((prev) => (cursor ? [...(prev || []), ...items] : items));
+      setNextCursor(next);
+      if (!cursor) setTotalResumes(total);
     } catch (error) {
       console.error("Error fetching resumes:", error);
     }
@@ -50,8 +58,8 @@ const Dashboard = () => {
           Welcome back, {firstName}! 👋
         </h1>
         <p className="text-gray-600">
-          {allResumes?.length > 0
-            ? `You have ${allResumes.length} resume${allResumes.length > 1 ? 's' : ''}. Keep building your career!`
+          {totalResumes > 0
+            ? `You have ${totalResumes} resume${totalResumes > 1 ? 's' : ''}. Keep building your career!`
             : "Let's create your first professional resume today!"
           }
         </p>
@@ -65,7 +73,7 @@ const Dashboard = () => {
               <FileText className="w-5 h-5 text-coral" />
             </div>
             <div>
-              <p className="text-2xl font-bold text-gray-900">{allResumes?.length || 0}</p>
+              <p className="text-2xl font-bold text-gray-900">{totalResumes}</p>
               <p className="text-sm text-gray-500">Total Resumes</p>
             </div>
           </div>
@@ -136,6 +144,17 @@ const Dashboard = () => {
         ))}
       </div>
 
+      {nextCursor && (
+        <div className="flex justify-center mt-6">
+          <button
+            onClick={() => fetchAllResumes(nextCursor)}
+            className="px-5 py-2 rounded-full text-sm font-medium text-coral border border-coral/30 hover:bg-coral/5 transition-colors"
+          >
+            Load more
+          </button>
+        </div>
+      )}
+
       <Modal
         isOpen={openCreateModal}
         onClose={handleCloseModal}
@@ -14,6 +14,7 @@ export const API_PATHS = {
   RESUME: {
     CREATE: "/api/resumes",
     GET_ALL: "/api/resumes",
+    GET_SUMMARIES: "/api/resumes/summaries",
     GET_BY_ID: (id) => `/api/resumes/${id}`,
     UPDATE: (id) => `/api/resumes/${id}`,
     DELETE: (id) => `/api/resumes/${id}`,
@@ -30,5 +31,7 @@ export const API_PATHS = {
   },
   ATS: {
     ANALYZE: "/api/ats/analyze",
+    JOBS: "/api/ats/jobs",
+    JOB_STATUS: (jobId) => `/api/ats/jobs/${jobId}`,
   },
 };